@@ -0,0 +1,247 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Guesses the encoding of a source file from its first bytes, for builds that do not set the source encoding.
+ * <p>
+ * A byte order mark gives the encoding. Otherwise files whose first bytes are valid UTF-8 with some non ASCII
+ * characters are read as UTF-8, and other files are read with the fallback encoding. When the first bytes are all
+ * ASCII and the file goes on, the encoding is not proven: the file is read as UTF-8, often right for a license header
+ * followed by comments in another language, but it is read again with the fallback encoding at its first byte that is
+ * not UTF-8, so that the files in a single byte encoding are still read right. The encoding is only detected when none
+ * is configured for the build.
+ * <p>
+ * The same first bytes tell binary files apart, so that they are skipped before they are decoded.
+ */
+final class EncodingSniffer {
+
+    /**
+     * Number of bytes looked at.
+     */
+    static final int SNIFF_SIZE = 8192;
+
+    /**
+     * Binary files have more control characters than one for this number of bytes.
+     */
+    private static final int CONTROL_CHARACTER_RATIO = 10;
+
+    /**
+     * The detected encoding.
+     */
+    private final Charset charset;
+
+    /**
+     * The number of bytes of the byte order mark to skip before decoding.
+     */
+    private final int skip;
+
+    /**
+     * True if the file is read as UTF-8 only because its first bytes are ASCII.
+     */
+    private final boolean tentative;
+
+    /**
+     * Constructor.
+     *
+     * @param charset the detected encoding.
+     * @param skip the number of bytes to skip.
+     * @param tentative true if the encoding is not proven.
+     */
+    private EncodingSniffer(Charset charset, int skip, boolean tentative) {
+        this.charset = charset;
+        this.skip = skip;
+        this.tentative = tentative;
+    }
+
+    /**
+     * Returns the detected encoding.
+     *
+     * @return the charset to read the file with.
+     */
+    Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns the number of bytes of the byte order mark to skip before decoding.
+     *
+     * @return the number of bytes to skip.
+     */
+    int getSkip() {
+        return skip;
+    }
+
+    /**
+     * Tells whether the file is read as UTF-8 only because its first bytes are ASCII, in which case the file must be
+     * read again with the fallback encoding if the rest of it is not UTF-8.
+     *
+     * @return true if the detected encoding is not proven.
+     */
+    boolean isTentative() {
+        return tentative;
+    }
+
+    /**
+     * Reads the first bytes of a file.
+     *
+     * @param path the file.
+     * @return the first {@link #SNIFF_SIZE} bytes of the file, or all of them if it is shorter, ready to be read.
+     * @throws IOException the IO exception.
+     */
+    static ByteBuffer readHead(Path path) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SNIFF_SIZE);
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+        }
+        head.flip();
+        return head;
+    }
+
+    /**
+     * Guesses the encoding of a file from its first bytes.
+     *
+     * @param head the first bytes of the file, between its position and its limit; the position is not changed.
+     * @param wholeFile true if the bytes are the whole file, false if the file may go on.
+     * @param fallback the encoding to use when the bytes do not tell.
+     * @return the detected encoding.
+     */
+    static EncodingSniffer sniff(ByteBuffer head, boolean wholeFile, Charset fallback) {
+        int start = head.position();
+        int end = head.limit();
+        int length = end - start;
+        if (length >= 3
+                && (head.get(start) & 0xFF) == 0xEF
+                && (head.get(start + 1) & 0xFF) == 0xBB
+                && (head.get(start + 2) & 0xFF) == 0xBF) {
+            return new EncodingSniffer(StandardCharsets.UTF_8, 3, false);
+        }
+        if (length >= 2) {
+            int first = head.get(start) & 0xFF;
+            int second = head.get(start + 1) & 0xFF;
+            if ((first == 0xFE && second == 0xFF) || (first == 0xFF && second == 0xFE)) {
+                // the UTF-16 decoder reads the byte order mark itself
+                return new EncodingSniffer(StandardCharsets.UTF_16, 0, false);
+            }
+        }
+
+        // ASCII fast path: an ASCII file reads the same with both encodings, the rest of a longer file tells
+        int i = start;
+        while (i < end && head.get(i) >= 0) {
+            i++;
+        }
+        if (i == end) {
+            return wholeFile
+                    ? new EncodingSniffer(fallback, 0, false)
+                    : new EncodingSniffer(StandardCharsets.UTF_8, 0, true);
+        }
+        return new EncodingSniffer(isUtf8(head, i, end, wholeFile) ? StandardCharsets.UTF_8 : fallback, 0, false);
+    }
+
+    /**
+     * Tells whether the first bytes of a file look binary: they contain a NUL byte, or more than one control character
+     * in ten bytes. Tabs, line terminators and form feeds are not control characters here.
+     *
+     * @param head the first bytes of the file, between its position and its limit; the position is not changed.
+     * @param charset the encoding of the file, or null if it is not supported.
+     * @return true if the file is binary, always false for encodings like UTF-16 that use NUL bytes for text.
+     */
+    static boolean isBinary(ByteBuffer head, Charset charset) {
+        if (charset == null || "\n".getBytes(charset).length != 1) {
+            return false;
+        }
+        int start = head.position();
+        int end = head.limit();
+        int controls = 0;
+        for (int i = start; i < end; i++) {
+            byte b = head.get(i);
+            if (b == 0) {
+                return true;
+            }
+            if (b > 0 && b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f') {
+                controls++;
+            }
+        }
+        return controls * CONTROL_CHARACTER_RATIO > end - start;
+    }
+
+    /**
+     * Validates bytes as UTF-8. A sequence cut by the end of the bytes is accepted when the bytes are only the
+     * beginning of the file.
+     *
+     * @param bytes the bytes.
+     * @param start the first byte to check, at the beginning of a sequence.
+     * @param end the end of the bytes.
+     * @param wholeFile true if the bytes are the whole file.
+     * @return true if the bytes are valid UTF-8.
+     */
+    private static boolean isUtf8(ByteBuffer bytes, int start, int end, boolean wholeFile) {
+        int i = start;
+        while (i < end) {
+            int b = bytes.get(i) & 0xFF;
+            int continuations;
+            int minimum;
+            if (b < 0x80) {
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuations = 1;
+                minimum = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuations = 2;
+                minimum = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuations = 3;
+                minimum = 0x10000;
+            } else {
+                return false;
+            }
+            int codePoint = b & (0x3F >> continuations);
+            for (int j = 1; j <= continuations; j++) {
+                if (i + j >= end) {
+                    // cut by the end of the sniffed bytes, or truncated at the end of the file
+                    return !wholeFile;
+                }
+                int next = bytes.get(i + j) & 0xFF;
+                if ((next & 0xC0) != 0x80) {
+                    return false;
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+            if (codePoint < minimum
+                    || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                return false;
+            }
+            i += continuations + 1;
+        }
+        return true;
+    }
+}
@@ -19,24 +19,68 @@ package org.codehaus.mojo.taglist;
  * under the License.
  */
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.taglist.beans.CommentPool;
+import org.codehaus.mojo.taglist.beans.DeferredComments;
+import org.codehaus.mojo.taglist.beans.DirectoryTrie;
 import org.codehaus.mojo.taglist.beans.FileReport;
+import org.codehaus.mojo.taglist.beans.SkippedFile;
+import org.codehaus.mojo.taglist.beans.SourceFileInfo;
 import org.codehaus.mojo.taglist.beans.TagReport;
+import org.codehaus.mojo.taglist.tags.AbsTag;
 import org.codehaus.mojo.taglist.tags.TagClass;
-import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.SelectorUtils;
 
 /**
  * Class that analyzes a file with a special comment tag. For instance:
@@ -60,9 +104,9 @@ public class FileAnalyser {
     private static final String SLASH_COMMENT = "//";
 
     /**
-     * Maximum length of a comment.
+     * Size of the buffer used to find the line boundaries of large files.
      */
-    private static final int MAX_COMMENT_CHARACTERS = 99999;
+    private static final int SPLIT_BUFFER_SIZE = 64 * 1024;
 
     /**
      * The character encoding of the files to analyze.
@@ -70,24 +114,35 @@ public class FileAnalyser {
     private final String encoding;
 
     /**
-     * The Locale of the files to analyze.
+     * The charset of the files to analyze, or null if the encoding is not supported.
      */
-    private final Locale sourceFileLocale;
+    private final Charset charset;
 
     /**
-     * The directories to analyze.
+     * The decoder and buffers of each scanning thread, reused from file to file.
      */
-    private final Collection<String> sourceDirs;
+    private final ThreadLocal<ScanBuffers> scanBuffers = new ThreadLocal<>();
+
+    /**
+     * The threads scanning the chunks of large files, or null until a file is scanned in chunks. The pool is shut
+     * down at the end of the analysis, so that the buffers of its threads do not outlive it in a long-lived JVM.
+     */
+    private ForkJoinPool chunkPool;
+
+    /**
+     * The counters of this analysis.
+     */
+    private final ScanStatistics statistics = new ScanStatistics();
 
     /**
-     * The files to include, as a comma separated list of patterns.
+     * The Locale of the files to analyze.
      */
-    private final String includes;
+    private final Locale sourceFileLocale;
 
     /**
-     * The files top exclude, as a comma separated list of patterns.
+     * The directories to analyze.
      */
-    private final String excludes;
+    private final Collection<String> sourceDirs;
 
     /**
      * Log for debug output.
@@ -109,6 +164,97 @@ public class FileAnalyser {
      */
     private final List<TagClass> tagClasses;
 
+    /**
+     * Files of at least this size in bytes are split into chunks that are scanned in parallel.
+     */
+    private final long parallelScanThreshold;
+
+    /**
+     * Set to true if the comment texts are only read from the files when the report needs them.
+     */
+    private final boolean deferComments;
+
+    /**
+     * Set to true if the encoding of each file is detected from its first bytes, the configured encoding being only
+     * the fallback.
+     */
+    private final boolean detectEncoding;
+
+    /**
+     * The source archives whose entries are scanned.
+     */
+    private final List<File> sourceArchives;
+
+    /**
+     * The patterns of the files and archive entries to scan, with '/' separators.
+     */
+    private final String[] includePatterns;
+
+    /**
+     * The patterns of the files and archive entries not to scan, including the default excludes.
+     */
+    private final String[] excludePatterns;
+
+    /**
+     * Set to true to leave out the files and directories ignored by git.
+     */
+    private final boolean respectGitIgnore;
+
+    /**
+     * The file listing the source files to scan instead of walking the source directories, or null.
+     */
+    private final File fileListManifest;
+
+    /**
+     * Files larger than this size in bytes are skipped, or 0 for no limit.
+     */
+    private final long maxFileSize;
+
+    /**
+     * Files with a line longer than this number of characters are skipped, or 0 for no limit.
+     */
+    private final int maxLineLength;
+
+    /**
+     * The detector of the generated files to leave out, or null if generated files are scanned.
+     */
+    private final GeneratedSourceDetector generatedSourceDetector;
+
+    /**
+     * The files that were skipped because they are over the scan limits.
+     */
+    private final List<SkippedFile> skippedFiles = new ArrayList<>();
+
+    /**
+     * The pool of the comment texts found by this analyzer.
+     */
+    private final CommentPool commentPool;
+
+    /**
+     * The directories of the scanned files.
+     */
+    private final DirectoryTrie directoryTrie = new DirectoryTrie();
+
+    /**
+     * The description of everything the results of a file depend on, besides its content.
+     */
+    private final String scanConfiguration;
+
+    /**
+     * The results of the previous analysis, or null if all the files are scanned.
+     */
+    private final ScanCache scanCache;
+
+    /**
+     * Set to true if the directories whose modification time did not change are not listed again.
+     */
+    private final boolean trustDirectoryTimestamps;
+
+    /**
+     * The files to scan by source directory, found when the fingerprint of the inputs was computed, or null.
+     */
+    private Map<Path, List<Path>> discoveredFiles;
+
     /**
      * Constructor.
      *
@@ -123,10 +269,98 @@ public class FileAnalyser {
         log = report.getLog();
         sourceDirs = report.getSourceDirs();
         encoding = report.getInputEncoding();
+        charset = lookupCharset(encoding);
+        detectEncoding = report.isDetectEncoding() && charset != null;
         sourceFileLocale = report.getSourceFileLocale();
         this.tagClasses = tagClasses;
-        this.includes = report.getIncludesCommaSeparated();
-        this.excludes = report.getExcludesCommaSeparated();
+        this.sourceArchives = report.getSourceArchives();
+        this.includePatterns = normalizePatterns(StringUtils.split(report.getIncludesCommaSeparated(), ","));
+        List<String> allExcludes =
+                new ArrayList<>(Arrays.asList(StringUtils.split(report.getExcludesCommaSeparated(), ",")));
+        allExcludes.addAll(Arrays.asList(DirectoryScanner.DEFAULTEXCLUDES));
+        this.excludePatterns = normalizePatterns(allExcludes.toArray(new String[0]));
+        this.respectGitIgnore = report.isRespectGitIgnore();
+        this.fileListManifest = report.getFileListManifest();
+        this.parallelScanThreshold = report.getParallelScanThreshold();
+        this.deferComments = report.isDeferComments();
+        this.maxFileSize = report.getMaxFileSize();
+        this.maxLineLength = report.getMaxLineLength();
+        this.generatedSourceDetector = report.isSkipGeneratedSources()
+                ? new GeneratedSourceDetector(report.getGeneratedMarkers(), report.getGeneratedPathPatterns())
+                : null;
+        this.commentPool = new CommentPool(report.getCommentHeapBudget(), report.getSpillDirectory());
+        this.scanConfiguration = describeScanConfiguration(report);
+        File scanCacheFile = report.getScanCacheFile();
+        MemoryScanCache memoryCache =
+                report.getMemoryCacheSize() > 0 ? MemoryScanCache.getInstance(report.getMemoryCacheSize()) : null;
+        this.scanCache = scanCacheFile == null && memoryCache == null
+                ? null
+                : ScanCache.load(
+                        scanCacheFile == null ? null : scanCacheFile.toPath(), scanConfiguration, memoryCache, log);
+        // the directory listings are only kept in the cache file
+        this.trustDirectoryTimestamps = scanCacheFile != null && report.isTrustDirectoryTimestamps();
+    }
+
+    /**
+     * Describes everything the results of a file depend on, besides its content, so that cached results are only
+     * reused with the same configuration.
+     *
+     * @param report the MOJO that is using this analyzer.
+     * @return the description of the scan configuration.
+     */
+    private String describeScanConfiguration(TagListReport report) {
+        StringBuilder configuration = new StringBuilder();
+        configuration
+                .append("encoding=")
+                .append(encoding)
+                .append(";detectEncoding=")
+                .append(detectEncoding)
+                .append(";locale=")
+                .append(sourceFileLocale)
+                .append(";multipleLineComments=")
+                .append(multipleLineCommentsOn)
+                .append(";emptyComments=")
+                .append(emptyCommentsOn)
+                .append(";deferComments=")
+                .append(deferComments)
+                .append(";maxFileSize=")
+                .append(maxFileSize)
+                .append(";maxLineLength=")
+                .append(maxLineLength);
+        if (generatedSourceDetector != null) {
+            configuration
+                    .append(";generatedMarkers=")
+                    .append(Arrays.toString(report.getGeneratedMarkers()))
+                    .append(";generatedPathPatterns=")
+                    .append(Arrays.toString(report.getGeneratedPathPatterns()));
+        }
+        for (TagClass tagClass : tagClasses) {
+            configuration.append(";tagClass=").append(tagClass.getDisplayName());
+            for (AbsTag tag : tagClass.getTags()) {
+                configuration
+                        .append(";tag=")
+                        .append(tag.getClass().getName())
+                        .append(':')
+                        .append(tag.getTagString());
+            }
+        }
+        return configuration.toString();
+    }
+
+    /**
+     * Normalizes fileset patterns like the plexus directory scanner does: '/' separators, and a trailing '/' matching
+     * everything below.
+     *
+     * @param patterns the patterns.
+     * @return the normalized patterns.
+     */
+    private static String[] normalizePatterns(String[] patterns) {
+        String[] normalized = new String[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern = patterns[i].trim().replace('\\', '/');
+            normalized[i] = pattern.endsWith("/") ? pattern + "**" : pattern;
+        }
+        return normalized;
     }
 
     /**
@@ -135,14 +369,64 @@ public class FileAnalyser {
      * @return a collection of TagReport objects.
      */
     public Collection<TagReport> execute() throws IOException {
-        List<File> fileList = findFilesToScan();
+        List<Path> sourceRoots = new ArrayList<>(sourceDirs.size());
+        for (String sourceDir : sourceDirs) {
+            sourceRoots.add(Paths.get(sourceDir));
+        }
+        return execute(sourceRoots);
+    }
+
+    /**
+     * Execute the analysis of some source directories, which can be on any file system, for instance an in-memory one,
+     * and of the configured source archives.
+     *
+     * @param sourceRoots the source directories to scan instead of the ones of the TagListReport.
+     * @return a collection of TagReport objects.
+     */
+    public Collection<TagReport> execute(Collection<Path> sourceRoots) throws IOException {
+        Map<Path, List<Path>> filesToScan = discoveredFiles;
+        if (filesToScan == null || !filesToScan.keySet().containsAll(sourceRoots)) {
+            filesToScan = findFilesToScan(sourceRoots);
+        }
+        discoveredFiles = null;
+        try {
+            for (Path sourceRoot : sourceRoots) {
+                for (Path file : filesToScan.get(sourceRoot)) {
+                    scanFile(new SourceFileInfo(directoryTrie, file, encoding, sourceRoot));
+                }
+            }
+            for (File archive : sourceArchives) {
+                if (archive.isFile()) {
+                    scanArchive(archive);
+                } else {
+                    log.warn("The source archive " + archive.getPath() + " does not exist.");
+                }
+            }
+        } finally {
+            releaseScanThreads();
+        }
 
-        for (File file : fileList) {
-            if (file.exists()) {
-                scanFile(file);
+        if (scanCache != null) {
+            try {
+                scanCache.save();
+            } catch (IOException e) {
+                log.warn("Unable to write the scan cache: " + e.getMessage());
             }
         }
 
+        if (!skippedFiles.isEmpty()) {
+            log.info("Skipped " + skippedFiles.size() + " files over the scan limits");
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format(
+                    "Comment pool: %d distinct of %d comments, hit rate %.1f%%, %d spilled to disk",
+                    commentPool.size(),
+                    commentPool.getLookupCount(),
+                    commentPool.getHitRate() * 100,
+                    commentPool.getSpilledCount()));
+            log.debug(statistics.toString());
+        }
+
         // Get the tag reports from each of the tag classes.
         Collection<TagReport> tagReports = new ArrayList<>();
         for (TagClass tc : tagClasses) {
@@ -153,126 +437,1268 @@ public class FileAnalyser {
     }
 
     /**
-     * Gives the list of files to scan.
+     * Computes the fingerprint of everything the results of the analysis depend on: the scan configuration, the tag
+     * classes, and the path, size and modification time of each file to scan and of each source archive. Two analyses
+     * with the same fingerprint give the same results. The files found are kept for the next {@link #execute()}.
+     *
+     * @return the fingerprint, in hexadecimal.
+     * @throws IOException if the source directories cannot be walked.
+     */
+    public String fingerprint() throws IOException {
+        List<Path> sourceRoots = new ArrayList<>(sourceDirs.size());
+        for (String sourceDir : sourceDirs) {
+            sourceRoots.add(Paths.get(sourceDir));
+        }
+        discoveredFiles = findFilesToScan(sourceRoots);
+
+        MessageDigest fingerprint = newFingerprint();
+        updateFingerprint(fingerprint, describeAnalysis());
+        for (Path sourceRoot : sourceRoots) {
+            // the files of each source directory, in the order of the source directories of the description
+            updateFingerprint(fingerprint, "/");
+            for (Path file : discoveredFiles.get(sourceRoot)) {
+                updateFingerprint(fingerprint, toRelativePath(sourceRoot, file));
+                updateFingerprint(fingerprint, describeAttributes(file));
+            }
+        }
+        for (File archive : sourceArchives) {
+            updateFingerprint(fingerprint, describeAttributes(archive.toPath()));
+        }
+        return new BigInteger(1, fingerprint.digest()).toString(16);
+    }
+
+    /**
+     * Describes the analysis without looking at the files: the source directories and archives, the files selected in
+     * them, the scan configuration and the tag classes. Two analyses with the same description give the same results
+     * as long as no source file changes.
      *
-     * @return a List of File objects.
+     * @return the description of the analysis.
      */
-    private List<File> findFilesToScan() throws IOException {
-        List<File> filesList = new ArrayList<>();
+    public String describeAnalysis() {
+        StringBuilder analysis = new StringBuilder(scanConfiguration);
+        for (TagClass tagClass : tagClasses) {
+            analysis.append(";maxDetails=").append(tagClass.getTagReport().getMaxDetails());
+        }
         for (String sourceDir : sourceDirs) {
-            filesList.addAll(FileUtils.getFiles(new File(sourceDir), includes, excludes));
+            analysis.append(";sourceRoot=").append(Paths.get(sourceDir).toAbsolutePath());
+        }
+        for (File archive : sourceArchives) {
+            analysis.append(";sourceArchive=").append(archive.getAbsolutePath());
+        }
+        analysis.append(";includes=")
+                .append(Arrays.toString(includePatterns))
+                .append(";excludes=")
+                .append(Arrays.toString(excludePatterns))
+                .append(";respectGitIgnore=")
+                .append(respectGitIgnore)
+                .append(";fileListManifest=")
+                .append(fileListManifest == null ? null : fileListManifest.getAbsolutePath());
+        return analysis.toString();
+    }
+
+    /**
+     * Describes the size and modification time of a file for the fingerprint of the inputs.
+     *
+     * @param file the file.
+     * @return the description, or a marker if the file cannot be read.
+     */
+    private static String describeAttributes(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    /**
+     * Frees the buffers of the scanning threads: the ones of this thread, and the threads of the chunk pool.
+     */
+    private synchronized void releaseScanThreads() {
+        scanBuffers.remove();
+        if (chunkPool != null) {
+            chunkPool.shutdown();
+            chunkPool = null;
+        }
+    }
+
+    /**
+     * Returns the threads scanning the chunks of large files, started on first use.
+     *
+     * @return the chunk pool.
+     */
+    private synchronized ForkJoinPool getChunkPool() {
+        if (chunkPool == null) {
+            chunkPool = new ForkJoinPool();
+        }
+        return chunkPool;
+    }
+
+    /**
+     * Returns the pool of the comment texts found by this analyzer.
+     *
+     * @return the comment pool.
+     */
+    public CommentPool getCommentPool() {
+        return commentPool;
+    }
+
+    /**
+     * Returns the files that were skipped because they are over the scan limits, in scan order.
+     *
+     * @return the skipped files.
+     */
+    public List<SkippedFile> getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * Returns the counters of this analysis.
+     *
+     * @return the scan statistics.
+     */
+    public ScanStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gives the files to scan in each source directory, from the file list manifest if there is one, by walking the
+     * source directories otherwise.
+     *
+     * @param sourceRoots the source directories.
+     * @return the files to scan by source directory.
+     * @throws IOException if the manifest or the git rules of a source directory cannot be read.
+     */
+    private Map<Path, List<Path>> findFilesToScan(Collection<Path> sourceRoots) throws IOException {
+        if (fileListManifest != null) {
+            return readFileListManifest(sourceRoots);
+        }
+        Map<Path, List<Path>> files = new HashMap<>();
+        for (Path sourceRoot : sourceRoots) {
+            if (trustDirectoryTimestamps && sourceRoot.getFileSystem() == FileSystems.getDefault()) {
+                files.put(sourceRoot, findFilesToScanIncrementally(sourceRoot));
+            } else {
+                files.put(sourceRoot, findFilesToScan(sourceRoot));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Gives the list of files to scan in a source directory. Like the plexus directory scanner, symbolic links are
+     * followed and the default excludes apply; excluded directories are not walked into. With
+     * <code>respectGitIgnore</code>, the directories and files ignored by git are left out the same way.
+     *
+     * @param sourceRoot the source directory.
+     * @return the files matching the includes and none of the excludes.
+     */
+    private List<Path> findFilesToScan(Path sourceRoot) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(sourceRoot)) {
+            return files;
+        }
+        // the rules of the directories being walked, the innermost first
+        Deque<GitIgnore> gitIgnores = new ArrayDeque<>();
+        if (respectGitIgnore) {
+            gitIgnores.push(GitIgnore.forSourceRoot(sourceRoot));
+        }
+        Files.walkFileTree(
+                sourceRoot, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                        String relativePath = toRelativePath(sourceRoot, dir);
+                        if (!relativePath.isEmpty()
+                                && (matchesAny(excludePatterns, relativePath) || isGitIgnored(dir, true))) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        if (respectGitIgnore) {
+                            gitIgnores.push(gitIgnores.peek().enter(dir));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                        if (respectGitIgnore) {
+                            gitIgnores.pop();
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile()
+                                && isIncluded(toRelativePath(sourceRoot, file))
+                                && !isGitIgnored(file, false)) {
+                            files.add(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        if (!(e instanceof FileSystemLoopException)) {
+                            log.warn("Unable to read " + file + ": " + e.getMessage());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    /**
+                     * Tells whether a path is ignored by the git rules of the directory being walked.
+                     *
+                     * @param path the file or directory.
+                     * @param isDirectory true if the path is a directory.
+                     * @return true if git ignores the path.
+                     */
+                    private boolean isGitIgnored(Path path, boolean isDirectory) {
+                        if (respectGitIgnore && gitIgnores.peek().isIgnored(path, isDirectory)) {
+                            if (isDirectory) {
+                                statistics.ignoredDirectorySkipped();
+                            }
+                            return true;
+                        }
+                        return false;
+                    }
+                });
+        return files;
+    }
+
+    /**
+     * Gives the list of files to scan in a source directory like {@link #findFilesToScan(Path)} does, but without
+     * listing again the directories whose modification time did not change since the previous analysis: their files
+     * are taken from the scan cache, and are marked there as unchanged so that their attributes are not read either.
+     * Subdirectories are always visited, since a change below a directory does not change its modification time.
+     *
+     * @param sourceRoot the source directory.
+     * @return the files matching the includes and none of the excludes.
+     * @throws IOException if the git rules of the source directory cannot be read.
+     */
+    private List<Path> findFilesToScanIncrementally(Path sourceRoot) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(sourceRoot)) {
+            return files;
+        }
+        GitIgnore gitIgnore = respectGitIgnore ? GitIgnore.forSourceRoot(sourceRoot) : null;
+        walkDirectory(sourceRoot, sourceRoot, gitIgnore, new ArrayDeque<>(), files);
+        return files;
+    }
+
+    /**
+     * Walks a directory for {@link #findFilesToScanIncrementally(Path)}, and records its listing in the scan cache.
+     *
+     * @param sourceRoot the source directory.
+     * @param dir the directory to walk.
+     * @param parentGitIgnore the git rules of the parent directory, or null if they do not apply.
+     * @param ancestors the file keys of the directories being walked, to detect symbolic link loops.
+     * @param files the list to add the files to scan to.
+     * @throws IOException if the git rules of the directory cannot be read.
+     */
+    private void walkDirectory(
+            Path sourceRoot, Path dir, GitIgnore parentGitIgnore, Deque<Object> ancestors, List<Path> files)
+            throws IOException {
+        BasicFileAttributes attributes;
+        ScanCache.DirectoryEntry listing;
+        boolean unchanged;
+        try {
+            attributes = Files.readAttributes(dir, BasicFileAttributes.class);
+            if (attributes.fileKey() != null && ancestors.contains(attributes.fileKey())) {
+                // a symbolic link loop
+                return;
+            }
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            listing = scanCache.getDirectory(dir);
+            unchanged = listing != null && listing.getLastModified() == lastModified;
+            if (unchanged) {
+                statistics.unchangedDirectory();
+            } else {
+                listing = listDirectory(dir, lastModified);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read " + dir + ": " + e.getMessage());
+            return;
+        }
+        GitIgnore gitIgnore = parentGitIgnore == null ? null : parentGitIgnore.enter(dir);
+
+        for (String name : listing.getFileNames()) {
+            Path file = dir.resolve(name);
+            if (isIncluded(toRelativePath(sourceRoot, file))
+                    && (gitIgnore == null || !gitIgnore.isIgnored(file, false))) {
+                files.add(file);
+                if (unchanged) {
+                    scanCache.trustFile(file);
+                }
+            }
+        }
+        if (attributes.fileKey() != null) {
+            ancestors.push(attributes.fileKey());
+        }
+        for (String name : listing.getDirectoryNames()) {
+            Path subdirectory = dir.resolve(name);
+            if (matchesAny(excludePatterns, toRelativePath(sourceRoot, subdirectory))) {
+                continue;
+            }
+            if (gitIgnore != null && gitIgnore.isIgnored(subdirectory, true)) {
+                statistics.ignoredDirectorySkipped();
+                continue;
+            }
+            walkDirectory(sourceRoot, subdirectory, gitIgnore, ancestors, files);
+        }
+        if (attributes.fileKey() != null) {
+            ancestors.pop();
+        }
+        scanCache.putDirectory(dir, listing);
+    }
+
+    /**
+     * Lists the regular files and the subdirectories of a directory, following symbolic links.
+     *
+     * @param dir the directory.
+     * @param lastModified the modification time of the directory, in milliseconds.
+     * @return the listing.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private ScanCache.DirectoryEntry listDirectory(Path dir, long lastModified) throws IOException {
+        List<String> fileNames = new ArrayList<>();
+        List<String> directoryNames = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    log.warn("Unable to read " + entry + ": " + e.getMessage());
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    directoryNames.add(entry.getFileName().toString());
+                } else if (attributes.isRegularFile()) {
+                    fileNames.add(entry.getFileName().toString());
+                }
+            }
+        }
+        Collections.sort(fileNames);
+        Collections.sort(directoryNames);
+        return new ScanCache.DirectoryEntry(lastModified, fileNames, directoryNames);
+    }
+
+    /**
+     * Creates the digest of a fingerprint.
+     *
+     * @return the digest.
+     */
+    private static MessageDigest newFingerprint() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds a name to a fingerprint, terminated so that consecutive names cannot be confused.
+     *
+     * @param fingerprint the digest of the fingerprint.
+     * @param name the name.
+     */
+    private static void updateFingerprint(MessageDigest fingerprint, String name) {
+        fingerprint.update(name.getBytes(StandardCharsets.UTF_8));
+        fingerprint.update((byte) 0);
+    }
+
+    /**
+     * Gives the files to scan from the file list manifest, by source directory. The listed files that are in none of
+     * the source directories, or that do not match the includes and excludes, are left out; the directories are never
+     * listed, only the listed files that match are checked to exist.
+     *
+     * @param sourceRoots the source directories.
+     * @return the files to scan of each source directory, as paths resolved against the source directory.
+     * @throws IOException if the manifest cannot be read.
+     */
+    private Map<Path, List<Path>> readFileListManifest(Collection<Path> sourceRoots) throws IOException {
+        Map<Path, List<Path>> files = new HashMap<>();
+        // the source directories by absolute path, to find the one of each listed file
+        Map<Path, Path> absoluteRoots = new HashMap<>();
+        for (Path sourceRoot : sourceRoots) {
+            files.put(sourceRoot, new ArrayList<>());
+            absoluteRoots.put(sourceRoot.toAbsolutePath().normalize(), sourceRoot);
+        }
+        Path manifest = fileListManifest.toPath().toAbsolutePath();
+        int missing = 0;
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String listed = line.trim();
+                if (listed.isEmpty()) {
+                    continue;
+                }
+                Path file = manifest.resolveSibling(listed).normalize();
+                Path absoluteRoot = findSourceRoot(absoluteRoots.keySet(), file);
+                if (absoluteRoot == null || !isIncluded(toRelativePath(absoluteRoot, file))) {
+                    continue;
+                }
+                if (Files.isRegularFile(file)) {
+                    Path sourceRoot = absoluteRoots.get(absoluteRoot);
+                    files.get(sourceRoot).add(sourceRoot.resolve(absoluteRoot.relativize(file)));
+                } else {
+                    missing++;
+                }
+            }
+        }
+        if (missing > 0) {
+            log.warn(missing + " files listed in " + fileListManifest.getPath() + " do not exist.");
+        }
+        return files;
+    }
+
+    /**
+     * Finds the source directory of a file, the innermost one if source directories are nested.
+     *
+     * @param absoluteRoots the absolute paths of the source directories.
+     * @param file the absolute path of the file.
+     * @return the source directory containing the file, or null if there is none.
+     */
+    private static Path findSourceRoot(Collection<Path> absoluteRoots, Path file) {
+        Path found = null;
+        for (Path root : absoluteRoots) {
+            if (file.startsWith(root)
+                    && !file.equals(root)
+                    && (found == null || root.getNameCount() > found.getNameCount())) {
+                found = root;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the path of a file relative to its source directory, with '/' separators to match the patterns.
+     *
+     * @param sourceRoot the source directory.
+     * @param file the file.
+     * @return the relative path, empty for the source directory itself.
+     */
+    private static String toRelativePath(Path sourceRoot, Path file) {
+        StringBuilder relativePath = new StringBuilder();
+        for (Path name : sourceRoot.relativize(file)) {
+            if (relativePath.length() > 0) {
+                relativePath.append('/');
+            }
+            relativePath.append(name);
         }
-        return filesList;
+        return relativePath.toString();
     }
 
     /**
      * Access an input reader that uses the current file encoding.
      *
-     * @param file the file to open in the reader.
+     * @param in the stream to read from.
      * @return a reader with the current file encoding.
      * @throws IOException the IO exception.
      */
-    private Reader getReader(File file) throws IOException {
-        InputStream in = Files.newInputStream(file.toPath());
+    private Reader getReader(InputStream in) throws IOException {
         return (encoding == null) ? new InputStreamReader(in) : new InputStreamReader(in, encoding);
     }
 
+    /**
+     * Finds the charset of an encoding.
+     *
+     * @param encoding the encoding name, or null for the platform encoding.
+     * @return the charset, or null if the encoding is not supported, so that each file reports the error.
+     */
+    private static Charset lookupCharset(String encoding) {
+        try {
+            return (encoding == null) ? Charset.defaultCharset() : Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens a cursor on the lines of a file, with the decoder and buffers of the current thread when they are free.
+     *
+     * @param channel the file to read, closed with the cursor.
+     * @param fileCharset the encoding of the file, or the fallback encoding if it is detected.
+     * @param tentative true if the file is read as UTF-8 only because its first bytes are ASCII.
+     * @param detectFor the file to detect and record the encoding of, or null to use {@code fileCharset}.
+     * @param rejectBinary true to check that the first bytes of the file are text.
+     * @return the cursor.
+     * @throws BinaryFileException if the file is rejected as binary.
+     * @throws java.nio.charset.MalformedInputException if a file read as UTF-8 only because its first bytes are ASCII
+     *             is not UTF-8, when its lines are read.
+     * @throws IOException the IO exception.
+     */
+    private LineCursor openCursor(
+            ReadableByteChannel channel,
+            Charset fileCharset,
+            boolean tentative,
+            SourceFileInfo detectFor,
+            boolean rejectBinary)
+            throws IOException {
+        if (fileCharset == null) {
+            LineCursor cursor = new LineCursor(getReader(Channels.newInputStream(channel)));
+            cursor.setMaxLineLength(maxLineLength);
+            return cursor;
+        }
+        ScanBuffers buffers = scanBuffers.get();
+        if (buffers != null && buffers.isFree()) {
+            statistics.bufferReused();
+        } else {
+            buffers = new ScanBuffers();
+            statistics.bufferAllocated();
+            if (scanBuffers.get() == null) {
+                scanBuffers.set(buffers);
+            }
+        }
+        LineCursor cursor = buffers.open(channel, fileCharset, tentative, detectFor != null, rejectBinary);
+        cursor.setMaxLineLength(maxLineLength);
+        if (detectFor != null) {
+            detectFor.setEncoding(buffers.getCharset().name());
+        }
+        return cursor;
+    }
+
     /**
      * Scans a file to look for task tags.
      *
      * @param file the file to scan.
      */
     public void scanFile(File file) {
-        try (LineNumberReader reader = new LineNumberReader(getReader(file))) {
-
-            String currentLine = reader.readLine();
-            while (currentLine != null) {
-                int index;
-                // look for a tag on this line
-                for (TagClass tagClass : tagClasses) {
-                    index = tagClass.tagMatchContains(currentLine, sourceFileLocale);
-                    if (index != TagClass.NO_MATCH) {
-                        // there's a tag on this line
-                        String commentType = extractCommentType(currentLine, index);
-                        if (commentType == null) {
-                            // this is not a valid comment tag: skip other tag classes and
-                            // go to the next line
-                            break;
+        scanFile(file.toPath());
+    }
+
+    /**
+     * Scans a file to look for task tags.
+     *
+     * @param file the file to scan, on any file system.
+     */
+    public void scanFile(Path file) {
+        scanFile(new SourceFileInfo(directoryTrie, file, encoding, null));
+    }
+
+    /**
+     * Scans a file to look for task tags.
+     *
+     * @param sourceFile the metadata of the file to scan, shared by the reports of all tag classes.
+     */
+    private void scanFile(SourceFileInfo sourceFile) {
+        Path path = sourceFile.getPath();
+        List<TagOccurrence> occurrences = new ArrayList<>();
+        BasicFileAttributes attributes = null;
+        LineHashes lineHashes = null;
+        try {
+            ScanCache.FileEntry cached = scanCache == null ? null : scanCache.getUnchangedFile(path);
+            if (cached == null) {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                cached = scanCache == null ? null : scanCache.getFile(path, attributes);
+            }
+            if (cached != null) {
+                reuseCachedScan(sourceFile, cached);
+                return;
+            }
+            long length = attributes.size();
+            if (maxFileSize > 0 && length > maxFileSize) {
+                skipFile(sourceFile, SkippedFile.Reason.FILE_SIZE);
+                cacheScan(sourceFile, attributes, Collections.emptyList(), SkippedFile.Reason.FILE_SIZE, null);
+                return;
+            }
+            if (generatedSourceDetector != null && generatedSourceDetector.isGenerated(path)) {
+                log.debug("Skipping generated file " + path);
+                statistics.generatedFileSkipped();
+                cacheScan(sourceFile, attributes, Collections.emptyList(), null, null);
+                return;
+            }
+            boolean large = length >= parallelScanThreshold;
+            Charset fileCharset = charset;
+            long skip = 0;
+            boolean tentative = false;
+            if (large) {
+                // the chunks of a large file need its encoding before they are read
+                ByteBuffer head = EncodingSniffer.readHead(path);
+                if (detectEncoding) {
+                    EncodingSniffer sniffed = EncodingSniffer.sniff(head, false, charset);
+                    fileCharset = sniffed.getCharset();
+                    skip = sniffed.getSkip();
+                    tentative = sniffed.isTentative();
+                    sourceFile.setEncoding(fileCharset.name());
+                }
+                if (EncodingSniffer.isBinary(head, fileCharset)) {
+                    throw new BinaryFileException();
+                }
+            }
+
+            try {
+                lineHashes = scanContent(sourceFile, large, fileCharset, skip, tentative, detectEncoding, occurrences);
+            } catch (IOException | UncheckedIOException e) {
+                if (!isCausedBy(e, MalformedInputException.class)) {
+                    throw e;
+                }
+                // read as UTF-8 because its first bytes are ASCII, the file is in the fallback encoding after all
+                log.debug("Scanning " + path + " again with the " + charset.name() + " encoding, it is not UTF-8");
+                occurrences.clear();
+                sourceFile.setEncoding(charset.name());
+                lineHashes = scanContent(sourceFile, large, charset, 0, false, false, occurrences);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (skipOnFailure(sourceFile, e)) {
+                SkippedFile.Reason reason = isLineTooLong(e) ? SkippedFile.Reason.LINE_LENGTH : null;
+                cacheScan(sourceFile, attributes, Collections.emptyList(), reason, null);
+            } else {
+                // the tags found before the failure are reported, but the file is scanned again next time
+                addOccurrences(sourceFile, occurrences);
+            }
+            return;
+        }
+
+        addOccurrences(sourceFile, occurrences);
+        cacheScan(sourceFile, attributes, occurrences, null, lineHashes);
+    }
+
+    /**
+     * Records the results of a scanned file in the scan cache, if there is one.
+     *
+     * @param sourceFile the scanned file.
+     * @param attributes the attributes of the file read before the scan, or null if they could not be read.
+     * @param occurrences the occurrences found in the file.
+     * @param skipReason why the file was reported as skipped, or null.
+     * @param lineHashes the hashes of the lines of the file, or null if they were not computed.
+     */
+    private void cacheScan(
+            SourceFileInfo sourceFile,
+            BasicFileAttributes attributes,
+            List<TagOccurrence> occurrences,
+            SkippedFile.Reason skipReason,
+            LineHashes lineHashes) {
+        if (scanCache != null && attributes != null) {
+            scanCache.putFile(
+                    sourceFile.getPath(),
+                    new ScanCache.FileEntry(
+                            attributes.size(),
+                            attributes.lastModifiedTime().toMillis(),
+                            sourceFile.getEncoding(),
+                            sourceFile.hasClassName(),
+                            sourceFile.getPackageName(),
+                            skipReason,
+                            occurrences,
+                            lineHashes == null ? null : lineHashes.getHashes()));
+        }
+    }
+
+    /**
+     * Reports the results of an unchanged file from the scan cache instead of scanning it.
+     *
+     * @param sourceFile the unchanged file.
+     * @param cached the results of its previous scan.
+     */
+    private void reuseCachedScan(SourceFileInfo sourceFile, ScanCache.FileEntry cached) {
+        statistics.cachedFileReused();
+        sourceFile.setEncoding(cached.getEncoding());
+        if (cached.isPackageKnown()) {
+            sourceFile.setPackageName(cached.getPackageName());
+        }
+        if (cached.getSkipReason() != null) {
+            skipFile(sourceFile, cached.getSkipReason());
+        }
+        addOccurrences(sourceFile, cached.getOccurrences());
+    }
+
+    /**
+     * Scans the entries of a source archive, without extracting them.
+     *
+     * @param archive the archive file.
+     */
+    private void scanArchive(File archive) {
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && isIncluded(entry.getName())) {
+                    scanEntry(
+                            SourceFileInfo.forArchiveEntry(directoryTrie, archive, entry.getName(), encoding),
+                            zipFile,
+                            entry);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error while reading the source archive " + archive.getPath(), e);
+        }
+    }
+
+    /**
+     * Tells whether a file or an archive entry matches the includes and none of the excludes.
+     *
+     * @param relativePath the path of the file in its source directory or archive, with '/' separators.
+     * @return true if the file is to be scanned.
+     */
+    private boolean isIncluded(String relativePath) {
+        return matchesAny(includePatterns, relativePath) && !matchesAny(excludePatterns, relativePath);
+    }
+
+    /**
+     * Tells whether a file or an archive entry matches one of some patterns.
+     *
+     * @param patterns the normalized fileset patterns.
+     * @param relativePath the path of the file in its source directory or archive, with '/' separators.
+     * @return true if a pattern matches.
+     */
+    private static boolean matchesAny(String[] patterns, String relativePath) {
+        for (String pattern : patterns) {
+            if (SelectorUtils.matchPath(pattern, relativePath, "/", true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans an entry of a source archive. Entries are read as a stream, so they are never split into chunks.
+     *
+     * @param sourceFile the metadata of the entry.
+     * @param zipFile the open archive.
+     * @param entry the entry to scan.
+     */
+    private void scanEntry(SourceFileInfo sourceFile, ZipFile zipFile, ZipEntry entry) {
+        if (maxFileSize > 0 && entry.getSize() > maxFileSize) {
+            skipFile(sourceFile, SkippedFile.Reason.FILE_SIZE);
+            return;
+        }
+
+        List<TagOccurrence> occurrences = new ArrayList<>();
+        try {
+            if (generatedSourceDetector != null && isGeneratedEntry(sourceFile, zipFile, entry)) {
+                log.debug("Skipping generated entry " + sourceFile.getPathKey());
+                statistics.generatedFileSkipped();
+                return;
+            }
+            try {
+                scanEntryContent(sourceFile, zipFile, entry, detectEncoding, occurrences);
+            } catch (MalformedInputException e) {
+                // read as UTF-8 because its first bytes are ASCII, the entry is in the fallback encoding after all
+                log.debug("Scanning " + sourceFile.getPathKey() + " again with the " + charset.name()
+                        + " encoding, it is not UTF-8");
+                occurrences.clear();
+                sourceFile.setEncoding(charset.name());
+                scanEntryContent(sourceFile, zipFile, entry, false, occurrences);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (skipOnFailure(sourceFile, e)) {
+                return;
+            }
+        }
+
+        addOccurrences(sourceFile, occurrences);
+    }
+
+    /**
+     * Scans the content of an entry of a source archive.
+     *
+     * @param sourceFile the metadata of the entry.
+     * @param zipFile the open archive.
+     * @param entry the entry to scan.
+     * @param detect true to detect the encoding of the entry from its first bytes.
+     * @param occurrences the list the occurrences are added to.
+     * @throws IOException the IO exception.
+     */
+    private void scanEntryContent(
+            SourceFileInfo sourceFile, ZipFile zipFile, ZipEntry entry, boolean detect, List<TagOccurrence> occurrences)
+            throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(zipFile.getInputStream(entry));
+        try (LineCursor cursor = openCursor(channel, charset, false, detect ? sourceFile : null, true)) {
+            if (!scanLines(cursor, Integer.MAX_VALUE, occurrences, sourceFile)) {
+                // the whole entry was read without a package declaration
+                sourceFile.setPackageName(null);
+            }
+        }
+    }
+
+    /**
+     * Tells whether an archive entry is generated, from its archive-qualified path or its header.
+     *
+     * @param sourceFile the metadata of the entry.
+     * @param zipFile the open archive.
+     * @param entry the entry.
+     * @return true if the entry is generated.
+     * @throws IOException the IO exception.
+     */
+    private boolean isGeneratedEntry(SourceFileInfo sourceFile, ZipFile zipFile, ZipEntry entry) throws IOException {
+        if (generatedSourceDetector.matchesPath(Paths.get(sourceFile.getPathKey()))) {
+            return true;
+        }
+        try (ReadableByteChannel channel = Channels.newChannel(zipFile.getInputStream(entry))) {
+            return generatedSourceDetector.hasMarker(channel);
+        }
+    }
+
+    /**
+     * Handles a failed scan: binary files and files with a line over the limit are skipped, other errors are logged
+     * and the tags found so far are kept.
+     *
+     * @param sourceFile the file whose scan failed.
+     * @param failure the failure.
+     * @return true if the file is skipped.
+     */
+    private boolean skipOnFailure(SourceFileInfo sourceFile, Exception failure) {
+        if (failure instanceof BinaryFileException) {
+            log.debug("Skipping binary file " + sourceFile.getPathKey());
+            statistics.binaryFileSkipped();
+            return true;
+        }
+        if (isLineTooLong(failure)) {
+            skipFile(sourceFile, SkippedFile.Reason.LINE_LENGTH);
+            return true;
+        }
+        log.error("Error while scanning the file " + sourceFile.getPathKey(), failure);
+        return false;
+    }
+
+    /**
+     * Tells whether a scan failed because of a line over the maximum line length.
+     *
+     * @param failure the failure.
+     * @return true if the failure is caused by a {@link LineTooLongException}.
+     */
+    private static boolean isLineTooLong(Throwable failure) {
+        return isCausedBy(failure, LineTooLongException.class);
+    }
+
+    /**
+     * Adds the occurrences found in a file to the reports of their tag classes.
+     *
+     * @param sourceFile the scanned file.
+     * @param occurrences the occurrences, in line order.
+     */
+    private void addOccurrences(SourceFileInfo sourceFile, List<TagOccurrence> occurrences) {
+        DeferredComments deferredComments = null;
+        for (TagOccurrence occurrence : occurrences) {
+            TagReport tagReport = tagClasses.get(occurrence.getTagClassIndex()).getTagReport();
+            FileReport fileReport = tagReport.getFileReport(sourceFile, commentPool);
+            if (!tagReport.keepDetail()) {
+                fileReport.countComment();
+            } else if (occurrence.isDeferred()) {
+                if (deferredComments == null) {
+                    deferredComments = new DeferredComments(sourceFile, commentPool, detectEncoding);
+                }
+                int index = deferredComments.add(
+                        occurrence.getLineNumber(),
+                        occurrence.getColumn(),
+                        occurrence.getContinuationLines(),
+                        occurrence.getCommentType());
+                fileReport.addComment(deferredComments, index, occurrence.getLineNumber());
+            } else {
+                fileReport.addComment(occurrence.getComment(), occurrence.getLineNumber());
+            }
+        }
+    }
+
+    /**
+     * Scans the content of a file, in chunks if it is large.
+     *
+     * @param sourceFile the file to scan.
+     * @param large true if the file is over the parallel scan threshold.
+     * @param fileCharset the encoding of the file, or the fallback encoding if it is detected from a small file.
+     * @param skip the number of bytes of the byte order mark to skip.
+     * @param tentative true if the file is read as UTF-8 only because its first bytes are ASCII.
+     * @param detect true to detect the encoding of a small file from its first bytes.
+     * @param occurrences the list the occurrences are added to.
+     * @return the hashes of the lines of a large file, or null if they are not kept.
+     * @throws IOException the IO exception.
+     */
+    private LineHashes scanContent(
+            SourceFileInfo sourceFile,
+            boolean large,
+            Charset fileCharset,
+            long skip,
+            boolean tentative,
+            boolean detect,
+            List<TagOccurrence> occurrences)
+            throws IOException {
+        Path path = sourceFile.getPath();
+        if (large && canSplitAtLineBreaks(fileCharset)) {
+            // the line hashes of a large file are kept, so that only its changed lines are scanned next time
+            LineHashes lineHashes = scanCache == null ? null : new LineHashes();
+            ScanCache.FileEntry previous = scanCache == null ? null : scanCache.getPreviousFile(path);
+            if (previous != null
+                    && previous.getLineHashes() != null
+                    && Objects.equals(previous.getEncoding(), sourceFile.getEncoding())) {
+                rescanChangedLines(sourceFile, fileCharset, skip, tentative, previous, lineHashes, occurrences);
+            } else {
+                List<long[]> chunks = splitAtLineBreaks(path, lineHashes);
+                scanChunks(sourceFile, fileCharset, skip, tentative, chunks, occurrences);
+            }
+            return lineHashes;
+        }
+        SourceFileInfo detectFor = (detect && !large) ? sourceFile : null;
+        // unless it was checked above, the file is checked as its first bytes are read
+        SeekableByteChannel channel = Files.newByteChannel(path).position(skip);
+        try (LineCursor cursor = openCursor(channel, fileCharset, tentative, detectFor, !large)) {
+            if (!scanLines(cursor, Integer.MAX_VALUE, occurrences, sourceFile)) {
+                // the whole file was read without a package declaration
+                sourceFile.setPackageName(null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether a scan failed because of an exception of a given type.
+     *
+     * @param failure the failure.
+     * @param type the type of the cause.
+     * @return true if the failure or one of its causes is of the given type.
+     */
+    private static boolean isCausedBy(Throwable failure, Class<? extends Throwable> type) {
+        // a chunk failure is wrapped, maybe twice when it is rethrown by the fork join pool
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a file that is not scanned because it is over the scan limits. The tags it may have are not reported.
+     *
+     * @param sourceFile the skipped file.
+     * @param reason why the file is skipped.
+     */
+    private void skipFile(SourceFileInfo sourceFile, SkippedFile.Reason reason) {
+        if (log.isDebugEnabled()) {
+            log.debug("Skipping " + sourceFile.getPathKey() + ": " + reason);
+        }
+        skippedFiles.add(new SkippedFile(sourceFile.getRelativePath(), reason));
+    }
+
+    /**
+     * Tells whether a line break byte can only be part of a line terminator in the file encoding, so that a file can
+     * be split at line boundaries without decoding it first.
+     *
+     * @param fileCharset the encoding of the file, or null if it is not supported.
+     * @return true for single byte encodings and UTF-8.
+     */
+    private static boolean canSplitAtLineBreaks(Charset fileCharset) {
+        return fileCharset != null
+                && (StandardCharsets.UTF_8.equals(fileCharset) || fileCharset.newEncoder().maxBytesPerChar() == 1.0f);
+    }
+
+    /**
+     * Scans a large file split at line boundaries, scanning the chunks in parallel.
+     * <p>
+     * Each chunk reader starts with the number of lines before the chunk, so the line numbers are the same as in a
+     * sequential scan. A chunk only looks for tags on its own lines, but multiple line comments are read past the end
+     * of the chunk like in a sequential scan. The occurrences are merged in chunk order.
+     *
+     * @param sourceFile the file to scan.
+     * @param fileCharset the encoding of the file.
+     * @param skip the number of bytes of the byte order mark to skip.
+     * @param tentative true if the file is read as UTF-8 only because its first bytes are ASCII.
+     * @param chunks the chunks of the file, from {@link #splitAtLineBreaks(Path, LineHashes)}.
+     * @param occurrences the list the occurrences are added to.
+     */
+    private void scanChunks(
+            SourceFileInfo sourceFile,
+            Charset fileCharset,
+            long skip,
+            boolean tentative,
+            List<long[]> chunks,
+            List<TagOccurrence> occurrences) {
+        Path path = sourceFile.getPath();
+        log.debug("Scanning " + path + " in " + chunks.size() + " chunks");
+
+        // only the first chunk looks for the package declaration, otherwise it is read when needed
+        List<Callable<List<TagOccurrence>>> tasks = new ArrayList<>(chunks.size());
+        for (long[] chunk : chunks) {
+            tasks.add(() -> scanChunk(path, fileCharset, skip, tentative, chunk, chunk[0] == 0 ? sourceFile : null));
+        }
+        try {
+            for (Future<List<TagOccurrence>> occurrencesInChunk : getChunkPool().invokeAll(tasks)) {
+                occurrences.addAll(occurrencesInChunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while scanning " + path));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Scans again the lines of a large file that changed since its previous scan, and keeps the other occurrences.
+     * <p>
+     * The line hashes of the previous scan give the lines before the first change and after the last one, which did
+     * not change. The occurrences read from the changed lines, including a multiple line comment that continued into
+     * them or ended on one of them, are scanned again, and the occurrences after the changed lines are moved by the
+     * number of lines added or removed. The package of the previous scan is kept, unless the changed lines declare
+     * another one. When most of the file changed, the whole file is scanned again in chunks.
+     *
+     * @param sourceFile the file to scan.
+     * @param fileCharset the encoding of the file.
+     * @param skip the number of bytes of the byte order mark to skip.
+     * @param tentative true if the file is read as UTF-8 only because its first bytes are ASCII.
+     * @param previous the results of the previous scan of the file.
+     * @param lineHashes the collector of the hashes of the current lines.
+     * @param occurrences the list the occurrences are added to.
+     * @throws IOException the IO exception.
+     */
+    private void rescanChangedLines(
+            SourceFileInfo sourceFile,
+            Charset fileCharset,
+            long skip,
+            boolean tentative,
+            ScanCache.FileEntry previous,
+            LineHashes lineHashes,
+            List<TagOccurrence> occurrences)
+            throws IOException {
+        Path path = sourceFile.getPath();
+        List<long[]> chunks = splitAtLineBreaks(path, lineHashes);
+        long[] previousHashes = previous.getLineHashes();
+        long[] currentHashes = lineHashes.getHashes();
+        int prefix = LineHashes.commonPrefix(previousHashes, currentHashes);
+        int suffix = LineHashes.commonSuffix(previousHashes, currentHashes, prefix);
+        // the last changed line in each version, before the first line of the prefix when lines were only added or
+        // only removed
+        int previousEnd = previousHashes.length - suffix;
+        int currentEnd = currentHashes.length - suffix;
+
+        int start = prefix + 1;
+        for (TagOccurrence occurrence : previous.getOccurrences()) {
+            if (occurrence.getLineNumber() <= prefix && occurrence.getLastLineRead() > prefix) {
+                start = Math.min(start, occurrence.getLineNumber());
+            }
+        }
+        if ((long) (currentEnd - start + 1) * 2 > currentHashes.length) {
+            scanChunks(sourceFile, fileCharset, skip, tentative, chunks, occurrences);
+            return;
+        }
+
+        log.debug("Scanning lines " + start + " to " + currentEnd + " of " + path + ", the other lines did not change");
+        statistics.partialRescan();
+        for (TagOccurrence occurrence : previous.getOccurrences()) {
+            if (occurrence.getLineNumber() < start) {
+                occurrences.add(occurrence);
+            }
+        }
+        if (start > 1 && previous.isPackageKnown()) {
+            // the package declaration is not read again when it is in the unchanged lines before the rescan
+            sourceFile.setPackageName(previous.getPackageName());
+        }
+        if (start <= currentEnd) {
+            long position = Math.max(lineHashes.getLineStart(start), skip);
+            SeekableByteChannel channel = Files.newByteChannel(path).position(position);
+            try (LineCursor cursor = openCursor(channel, fileCharset, tentative, null, false)) {
+                cursor.setLineNumber(start - 1);
+                scanLines(cursor, currentEnd, occurrences, sourceFile);
+            }
+        }
+        for (TagOccurrence occurrence : previous.getOccurrences()) {
+            if (occurrence.getLineNumber() > previousEnd) {
+                occurrences.add(occurrence.shift(currentEnd - previousEnd));
+            }
+        }
+    }
+
+    /**
+     * Scans the lines of one chunk of a file.
+     *
+     * @param path the file to scan.
+     * @param fileCharset the encoding of the file.
+     * @param skip the number of bytes of the byte order mark to skip.
+     * @param tentative true if the file is read as UTF-8 only because its first bytes are ASCII.
+     * @param chunk the chunk as {start offset, number of lines before the chunk, last line of the chunk}.
+     * @param packageTarget the file to set the package name of if found in the chunk, or null.
+     * @return the occurrences found in the chunk.
+     */
+    private List<TagOccurrence> scanChunk(
+            Path path, Charset fileCharset, long skip, boolean tentative, long[] chunk, SourceFileInfo packageTarget) {
+        List<TagOccurrence> occurrences = new ArrayList<>();
+        long start = Math.max(chunk[0], skip);
+        try (LineCursor cursor =
+                openCursor(Files.newByteChannel(path).position(start), fileCharset, tentative, null, false)) {
+            cursor.setLineNumber((int) chunk[1]);
+            scanLines(cursor, (int) chunk[2], occurrences, packageTarget);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return occurrences;
+    }
+
+    /**
+     * Splits a file into chunks that start at the beginning of a line, and counts the lines before each chunk.
+     * Line terminators are counted like {@link LineNumberReader} does: "\n", "\r" or "\r\n".
+     *
+     * @param path the file to split.
+     * @param lineHashes the collector of the hashes of the lines, or null if they are not needed.
+     * @return the chunks as {start offset, number of lines before the chunk, last line of the chunk}.
+     * @throws IOException the IO exception.
+     */
+    private List<long[]> splitAtLineBreaks(Path path, LineHashes lineHashes) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            long size = channel.size();
+            long chunkSize = Math.max(1, size / Math.max(2, Runtime.getRuntime().availableProcessors()));
+            long nextSplit = chunkSize;
+            long chunkStart = 0;
+            long lines = 0;
+            long linesBeforeChunk = 0;
+            long offset = 0;
+            boolean previousWasCarriageReturn = false;
+
+            ByteBuffer buffer = ByteBuffer.allocate(SPLIT_BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                if (lineHashes != null) {
+                    lineHashes.update(buffer);
+                }
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    offset++;
+                    if (b == '\n') {
+                        lines++;
+                        if (offset >= nextSplit && offset < size) {
+                            chunks.add(new long[] {chunkStart, linesBeforeChunk, lines});
+                            chunkStart = offset;
+                            linesBeforeChunk = lines;
+                            nextSplit = offset + chunkSize;
+                        }
+                    } else if (previousWasCarriageReturn) {
+                        lines++;
+                    }
+                    previousWasCarriageReturn = b == '\r';
+                }
+                buffer.clear();
+            }
+            chunks.add(new long[] {chunkStart, linesBeforeChunk, Integer.MAX_VALUE});
+        }
+        if (lineHashes != null) {
+            lineHashes.finish();
+        }
+        return chunks;
+    }
+
+    /**
+     * Scans the lines of a reader to look for task tags.
+     *
+     * Lines are only copied into strings when a tag is found, so lines without tag are scanned without allocating.
+     *
+     * @param cursor the cursor positioned at the beginning of a line.
+     * @param lastLine the number of the last line to look for tags on; multiple line comments may read further.
+     * @param occurrences the list the occurrences are added to.
+     * @param packageTarget the file to set the package name of when the package declaration is read, or null.
+     * @return true if the package declaration was found.
+     * @throws IOException the IO exception.
+     */
+    private boolean scanLines(
+            LineCursor cursor, int lastLine, List<TagOccurrence> occurrences, SourceFileInfo packageTarget)
+            throws IOException {
+        boolean packageFound = false;
+        while (cursor.nextLine() && cursor.getLineNumber() <= lastLine) {
+            if (packageTarget != null && !packageFound) {
+                // pick up the package while we are reading the file anyway, so the class name is known without I/O
+                String packageName = SourceFileInfo.parsePackageDeclaration(cursor);
+                if (packageName != null) {
+                    packageTarget.setPackageName(packageName);
+                    packageFound = true;
+                }
+            }
+
+            // the line as a string, only created when a tag is found on it
+            String currentLine = null;
+            int index;
+            // look for a tag on this line
+            for (int tagClassIndex = 0; tagClassIndex < tagClasses.size(); tagClassIndex++) {
+                TagClass tagClass = tagClasses.get(tagClassIndex);
+                index = tagClass.tagMatchContains(cursor, sourceFileLocale);
+                if (index != TagClass.NO_MATCH) {
+                    // there's a tag on this line
+                    String commentType = extractCommentType(cursor, index);
+                    if (commentType == null) {
+                        // this is not a valid comment tag: skip other tag classes and
+                        // go to the next line
+                        break;
+                    }
+
+                    int commentColumn = index + tagClass.getLastTagMatchStringLength();
+                    int commentStartIndex = cursor.getLineNumber();
+                    if (currentLine == null) {
+                        currentLine = cursor.toString();
+                    }
+                    int continuationLines = 0;
+                    StringBuilder comment = deferComments ? null : new StringBuilder();
+
+                    String firstLine = DeferredComments.firstLineComment(currentLine, commentColumn);
+                    if (firstLine == null) {
+                        // this is not a valid comment tag: nothing is written there
+                        if (!emptyCommentsOn) {
+                            continue;
+                        }
+                    } else {
+                        // this tag has a comment
+                        if (comment != null) {
+                            comment.append(firstLine);
                         }
 
-                        int tagLength = tagClass.getLastTagMatchStringLength();
-                        int commentStartIndex = reader.getLineNumber();
-                        StringBuilder comment = new StringBuilder();
+                        if (multipleLineCommentsOn) {
+                            // Mark the current position, set the read forward limit to
+                            // a large number that should not be met.
+                            cursor.mark();
 
-                        String firstLine = StringUtils.strip(currentLine.substring(index + tagLength));
-                        firstLine = StringUtils.removeEnd(firstLine, "*/"); // MTAGLIST-35
-                        if (firstLine.isEmpty() || ":".equals(firstLine)) {
-                            // this is not a valid comment tag: nothing is written there
-                            if (!emptyCommentsOn) {
-                                continue;
-                            }
-                        } else {
-                            // this tag has a comment
-                            if (firstLine.charAt(0) == ':') {
-                                comment.append(firstLine.substring(1).trim());
-                            } else {
-                                comment.append(firstLine);
-                            }
+                            // next line
+                            String futureLine = cursor.nextLine() ? cursor.toString() : null;
 
-                            if (multipleLineCommentsOn) {
-                                // Mark the current position, set the read forward limit to
-                                // a large number that should not be met.
-                                reader.mark(MAX_COMMENT_CHARACTERS);
-
-                                // next line
-                                String futureLine = reader.readLine();
-
-                                // we're looking for multiple line comments
-                                while (futureLine != null
-                                        && futureLine.trim().startsWith(commentType)
-                                        && !futureLine.contains(tagClass.getLastTagMatchString())) {
-                                    String currentComment = futureLine
-                                            .substring(futureLine.indexOf(commentType) + commentType.length())
-                                            .trim();
-                                    if (currentComment.startsWith("@")
-                                            || currentComment.isEmpty()
-                                            || "/".equals(currentComment)) {
-                                        // the comment is finished
-                                        break;
-                                    }
-                                    // try to look if the next line is not a new tag
-                                    boolean newTagFound = false;
-                                    for (TagClass tc : tagClasses) {
-                                        if (tc.tagMatchStartsWith(currentComment, sourceFileLocale)) {
-                                            newTagFound = true;
-                                            break;
-                                        }
-                                    }
-                                    if (newTagFound) {
-                                        // this is a new comment: stop here the current comment
+                            // we're looking for multiple line comments
+                            while (futureLine != null
+                                    && futureLine.trim().startsWith(commentType)
+                                    && !futureLine.contains(tagClass.getLastTagMatchString())) {
+                                String currentComment = DeferredComments.continuationComment(futureLine, commentType);
+                                if (currentComment.startsWith("@")
+                                        || currentComment.isEmpty()
+                                        || "/".equals(currentComment)) {
+                                    // the comment is finished
+                                    break;
+                                }
+                                // try to look if the next line is not a new tag
+                                boolean newTagFound = false;
+                                for (TagClass tc : tagClasses) {
+                                    if (tc.tagMatchStartsWith(currentComment, sourceFileLocale)) {
+                                        newTagFound = true;
                                         break;
                                     }
-                                    // nothing was found: this means the comment is going on this line
+                                }
+                                if (newTagFound) {
+                                    // this is a new comment: stop here the current comment
+                                    break;
+                                }
+                                // nothing was found: this means the comment is going on this line
+                                continuationLines++;
+                                if (comment != null) {
                                     comment.append(" ");
                                     comment.append(currentComment);
-                                    futureLine = reader.readLine();
                                 }
-
-                                // Reset the reader to the marked position before the multi
-                                // line check was performed.
-                                reader.reset();
+                                futureLine = cursor.nextLine() ? cursor.toString() : null;
                             }
+
+                            // Reset the reader to the marked position before the multi
+                            // line check was performed.
+                            cursor.reset();
                         }
-                        TagReport tagReport = tagClass.getTagReport();
-                        FileReport fileReport = tagReport.getFileReport(file, encoding);
-                        fileReport.addComment(comment.toString(), commentStartIndex);
+                    }
+                    if (comment != null) {
+                        occurrences.add(new TagOccurrence(
+                                tagClassIndex, commentStartIndex, comment.toString(), continuationLines));
+                    } else {
+                        // only remember where the comment is, its text is read when the report needs it
+                        occurrences.add(new TagOccurrence(
+                                tagClassIndex, commentStartIndex, commentColumn, continuationLines, commentType));
                     }
                 }
-                currentLine = reader.readLine();
             }
-        } catch (IOException e) {
-            log.error("Error while scanning the file " + file.getPath(), e);
         }
+        return packageFound;
     }
 
     /**
@@ -282,14 +1708,37 @@ public class FileAnalyser {
      * @param index the index of the tag in the line.
      * @return "*" or "//" or null.
      */
-    private String extractCommentType(String currentLine, int index) {
-        String commentType = null;
-        String beforeTag = currentLine.substring(0, index).trim();
-        if (beforeTag.endsWith(SLASH_COMMENT)) {
-            commentType = SLASH_COMMENT;
-        } else if (beforeTag.endsWith(STAR_COMMENT)) {
-            commentType = STAR_COMMENT;
+    private String extractCommentType(CharSequence currentLine, int index) {
+        int end = index;
+        while (end > 0 && currentLine.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (endsWith(currentLine, end, SLASH_COMMENT)) {
+            return SLASH_COMMENT;
+        } else if (endsWith(currentLine, end, STAR_COMMENT)) {
+            return STAR_COMMENT;
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether a part of a line ends with a string.
+     *
+     * @param line the line.
+     * @param end the end of the part of the line.
+     * @param suffix the string to look for.
+     * @return true if the characters before {@code end} are {@code suffix}.
+     */
+    private static boolean endsWith(CharSequence line, int end, String suffix) {
+        int start = end - suffix.length();
+        if (start < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (line.charAt(start + i) != suffix.charAt(i)) {
+                return false;
+            }
         }
-        return commentType;
+        return true;
     }
 }
@@ -0,0 +1,137 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recognizes generated source files, from their path or from a marker in their first bytes, so that they can be left
+ * out before their lines are scanned.
+ * <p>
+ * The header is read as ISO-8859-1, so the markers are found in files of any encoding that is a superset of ASCII.
+ */
+final class GeneratedSourceDetector {
+
+    /**
+     * Number of bytes at the beginning of a file where the markers are looked for.
+     */
+    static final int HEADER_SIZE = 512;
+
+    /**
+     * The markers used when none are configured.
+     */
+    static final String[] DEFAULT_MARKERS = {"@Generated", "@generated", "DO NOT EDIT"};
+
+    /**
+     * The path patterns used when none are configured.
+     */
+    static final String[] DEFAULT_PATH_PATTERNS = {"**/generated-sources/**", "**/generated-test-sources/**"};
+
+    /**
+     * The texts that mark a file as generated when found in its header.
+     */
+    private final String[] markers;
+
+    /**
+     * The matchers of the paths of generated files.
+     */
+    private final List<PathMatcher> pathMatchers = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param markers the texts that mark a file as generated, or null for the default markers.
+     * @param pathPatterns the glob patterns of the paths of generated files, or null for the default patterns.
+     */
+    GeneratedSourceDetector(String[] markers, String[] pathPatterns) {
+        this.markers = markers != null ? markers : DEFAULT_MARKERS;
+        FileSystem fileSystem = FileSystems.getDefault();
+        for (String pattern : pathPatterns != null ? pathPatterns : DEFAULT_PATH_PATTERNS) {
+            pathMatchers.add(fileSystem.getPathMatcher("glob:" + pattern));
+        }
+    }
+
+    /**
+     * Tells whether a file is generated. The path is checked first, so that the file is only read if it does not
+     * match.
+     *
+     * @param path the absolute path of the file.
+     * @return true if the path matches a pattern or the header contains a marker.
+     * @throws IOException the IO exception.
+     */
+    boolean isGenerated(Path path) throws IOException {
+        if (matchesPath(path)) {
+            return true;
+        }
+        if (markers.length == 0) {
+            return false;
+        }
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            return hasMarker(channel);
+        }
+    }
+
+    /**
+     * Tells whether a path is the path of a generated file.
+     *
+     * @param path the absolute path of the file.
+     * @return true if the path matches a pattern.
+     */
+    boolean matchesPath(Path path) {
+        for (PathMatcher pathMatcher : pathMatchers) {
+            if (pathMatcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the header of a file contains a marker.
+     *
+     * @param channel the file content, read from its beginning and left open.
+     * @return true if the header contains a marker.
+     * @throws IOException the IO exception.
+     */
+    boolean hasMarker(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // fill the header until the end of the file
+        }
+        String text = new String(header.array(), 0, header.position(), StandardCharsets.ISO_8859_1);
+        for (String marker : markers) {
+            if (!marker.isEmpty() && text.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,318 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The ignore rules of git that apply to a directory: the <code>.gitignore</code> files of the directory and of its
+ * parents up to the repository root, and the <code>.git/info/exclude</code> file of the repository.
+ * <p>
+ * Each instance holds the rules of one file and points to the rules of the parent directory, so that walking a tree
+ * only reads the <code>.gitignore</code> file of each directory once. As in git, the last matching rule of the deepest
+ * file wins, and a negated rule re-includes a path. Paths under an ignored directory are not checked, since the walk
+ * does not enter ignored directories.
+ */
+final class GitIgnore {
+
+    /**
+     * The name of the files holding ignore rules.
+     */
+    static final String GITIGNORE = ".gitignore";
+
+    /**
+     * The rules that ignore nothing, for directories outside of a repository without <code>.gitignore</code> files.
+     */
+    private static final GitIgnore NONE = new GitIgnore(null, null, Collections.emptyList());
+
+    /**
+     * The rules of the parent directory, or null.
+     */
+    private final GitIgnore parent;
+
+    /**
+     * The directory the rules are relative to, or null if there are no rules.
+     */
+    private final Path directory;
+
+    /**
+     * The rules of the file, in file order.
+     */
+    private final List<Rule> rules;
+
+    /**
+     * Constructor.
+     *
+     * @param parent the rules of the parent directory, or null.
+     * @param directory the directory the rules are relative to.
+     * @param rules the rules.
+     */
+    private GitIgnore(GitIgnore parent, Path directory, List<Rule> rules) {
+        this.parent = parent;
+        this.directory = directory;
+        this.rules = rules;
+    }
+
+    /**
+     * Reads the rules that apply to the content of a source directory: the ones of the repository holding it and of
+     * its parent directories. The rules of the source directory itself are read when it is entered.
+     *
+     * @param sourceRoot the source directory.
+     * @return the rules, which ignore nothing if the directory is not in a repository.
+     * @throws IOException the IO exception.
+     */
+    static GitIgnore forSourceRoot(Path sourceRoot) throws IOException {
+        Path root = sourceRoot.toAbsolutePath().normalize();
+        Path repository = root;
+        while (repository != null && !Files.exists(repository.resolve(".git"))) {
+            repository = repository.getParent();
+        }
+        if (repository == null) {
+            return NONE;
+        }
+
+        GitIgnore rules = NONE;
+        Path exclude = repository.resolve(".git").resolve("info").resolve("exclude");
+        if (Files.isRegularFile(exclude)) {
+            rules = new GitIgnore(rules, repository, parse(exclude));
+        }
+        List<Path> parents = new ArrayList<>();
+        for (Path dir = root.getParent(); dir != null && dir.startsWith(repository); dir = dir.getParent()) {
+            parents.add(0, dir);
+        }
+        for (Path dir : parents) {
+            rules = rules.enter(dir);
+        }
+        return rules;
+    }
+
+    /**
+     * Returns the rules that apply to the content of a sub directory, reading its <code>.gitignore</code> file.
+     *
+     * @param dir the sub directory.
+     * @return the rules of the sub directory, or these rules if it has no <code>.gitignore</code> file.
+     * @throws IOException the IO exception.
+     */
+    GitIgnore enter(Path dir) throws IOException {
+        Path file = dir.resolve(GITIGNORE);
+        if (!Files.isRegularFile(file)) {
+            return this;
+        }
+        List<Rule> fileRules = parse(file);
+        return fileRules.isEmpty() ? this : new GitIgnore(this, dir, fileRules);
+    }
+
+    /**
+     * Tells whether a file or directory is ignored.
+     *
+     * @param path the file or directory, under the directory of these rules.
+     * @param isDirectory true if the path is a directory.
+     * @return true if the last matching rule ignores the path.
+     */
+    boolean isIgnored(Path path, boolean isDirectory) {
+        for (GitIgnore level = this; level != null; level = level.parent) {
+            if (level.rules.isEmpty()) {
+                continue;
+            }
+            String relativePath = toRelativePath(level.directory, path);
+            for (int i = level.rules.size() - 1; i >= 0; i--) {
+                Rule rule = level.rules.get(i);
+                if ((!rule.directoryOnly || isDirectory) && rule.pattern.matcher(relativePath).matches()) {
+                    return !rule.negated;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the path of a file relative to a directory, with '/' separators.
+     *
+     * @param dir the directory.
+     * @param path the file, under the directory.
+     * @return the relative path.
+     */
+    private static String toRelativePath(Path dir, Path path) {
+        StringBuilder relativePath = new StringBuilder();
+        for (Path name : dir.relativize(path)) {
+            if (relativePath.length() > 0) {
+                relativePath.append('/');
+            }
+            relativePath.append(name);
+        }
+        return relativePath.toString();
+    }
+
+    /**
+     * Reads the rules of an ignore file. Lines that are not valid patterns are left out.
+     *
+     * @param file the ignore file.
+     * @return the rules, in file order.
+     * @throws IOException the IO exception.
+     */
+    private static List<Rule> parse(Path file) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\r?\n")) {
+            Rule rule = Rule.parse(line);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * One line of an ignore file.
+     */
+    static final class Rule {
+
+        /**
+         * The pattern matching the paths relative to the directory of the ignore file.
+         */
+        private final Pattern pattern;
+
+        /**
+         * True if the rule re-includes the paths it matches.
+         */
+        private final boolean negated;
+
+        /**
+         * True if the rule only matches directories.
+         */
+        private final boolean directoryOnly;
+
+        /**
+         * Constructor.
+         *
+         * @param pattern the compiled pattern.
+         * @param negated true for a rule starting with '!'.
+         * @param directoryOnly true for a rule ending with '/'.
+         */
+        private Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+
+        /**
+         * Parses a line of an ignore file.
+         *
+         * @param line the line.
+         * @return the rule, or null for blank lines, comments and invalid patterns.
+         */
+        static Rule parse(String line) {
+            String text = trimTrailingSpaces(line);
+            if (text.isEmpty() || text.startsWith("#")) {
+                return null;
+            }
+            boolean negated = text.startsWith("!");
+            if (negated || text.startsWith("\\!") || text.startsWith("\\#")) {
+                text = text.substring(1);
+            }
+            boolean directoryOnly = text.endsWith("/");
+            if (directoryOnly) {
+                text = text.substring(0, text.length() - 1);
+            }
+            // a pattern with a slash is relative to the directory of the file, otherwise it matches at any depth
+            boolean anchored = text.indexOf('/') >= 0;
+            if (text.startsWith("/")) {
+                text = text.substring(1);
+            }
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                String regex = toRegex(text);
+                return new Rule(Pattern.compile(anchored ? regex : "(?:.*/)?" + regex), negated, directoryOnly);
+            } catch (PatternSyntaxException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Removes the trailing spaces of a line, unless they are escaped with a backslash.
+         *
+         * @param line the line.
+         * @return the trimmed line.
+         */
+        private static String trimTrailingSpaces(String line) {
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+
+        /**
+         * Converts a git wildcard pattern to a regular expression.
+         *
+         * @param glob the pattern, without leading or trailing slash.
+         * @return the regular expression.
+         */
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int i = 0;
+            while (i < glob.length()) {
+                char c = glob.charAt(i);
+                boolean segmentStart = i == 0 || glob.charAt(i - 1) == '/';
+                if (segmentStart && glob.startsWith("**/", i)) {
+                    regex.append("(?:.*/)?");
+                    i += 3;
+                } else if (segmentStart && glob.startsWith("**", i) && i + 2 == glob.length()) {
+                    regex.append(".*");
+                    i += 2;
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                    i++;
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                    i++;
+                } else if (c == '[') {
+                    int end = glob.indexOf(']', i + 2);
+                    if (end < 0) {
+                        regex.append("\\[");
+                        i++;
+                    } else {
+                        String set = glob.substring(i + 1, end);
+                        regex.append('[')
+                                .append(set.startsWith("!") ? "^" + set.substring(1) : set)
+                                .append(']');
+                        i = end + 1;
+                    }
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(i + 1))));
+                    i += 2;
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                    i++;
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the lines of a reader into a reusable character buffer, and gives the current line as a view of that buffer.
+ * <p>
+ * Unlike {@link java.io.LineNumberReader#readLine()}, moving to the next line does not create a String: the cursor
+ * itself is the current line, and is only valid until the next call to {@link #nextLine()}. Lines are terminated by
+ * "\n", "\r" or "\r\n" and numbered like {@link java.io.LineNumberReader} does.
+ */
+final class LineCursor implements CharSequence, Closeable {
+
+    /**
+     * Initial size of the character buffer.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /**
+     * The reader the lines are read from.
+     */
+    private final Reader reader;
+
+    /**
+     * The buffered characters.
+     */
+    private char[] buffer;
+
+    /**
+     * The offset in the stream of the first character of the buffer.
+     */
+    private long bufferOffset;
+
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * True once the reader is exhausted.
+     */
+    private boolean endOfStream;
+
+    /**
+     * The offset in the stream of the next character to read.
+     */
+    private long position;
+
+    /**
+     * The offset in the stream of the first character of the current line.
+     */
+    private long lineStart;
+
+    /**
+     * The offset in the stream of the line terminator of the current line.
+     */
+    private long lineEnd;
+
+    /**
+     * The number of the current line.
+     */
+    private int lineNumber;
+
+    /**
+     * True if the previous line ended with "\r", so that a following "\n" is part of its terminator.
+     */
+    private boolean skipLineFeed;
+
+    /**
+     * The maximum length of a line, or 0 for no limit.
+     */
+    private int maxLineLength;
+
+    /**
+     * True if a position is marked.
+     */
+    private boolean marked;
+
+    /**
+     * The marked {@link #position}.
+     */
+    private long markPosition;
+
+    /**
+     * The marked {@link #lineStart}.
+     */
+    private long markLineStart;
+
+    /**
+     * The marked {@link #lineEnd}.
+     */
+    private long markLineEnd;
+
+    /**
+     * The marked {@link #lineNumber}.
+     */
+    private int markLineNumber;
+
+    /**
+     * The marked {@link #skipLineFeed}.
+     */
+    private boolean markSkipLineFeed;
+
+    /**
+     * Constructor.
+     *
+     * @param reader the reader to read the lines from, positioned at the beginning of a line.
+     */
+    LineCursor(Reader reader) {
+        this(reader, new char[INITIAL_BUFFER_SIZE]);
+    }
+
+    /**
+     * Constructor reusing a character buffer. The buffer is replaced by a larger one if a line does not fit.
+     *
+     * @param reader the reader to read the lines from, positioned at the beginning of a line.
+     * @param buffer the buffer to read the characters into, of at least 2 characters.
+     */
+    LineCursor(Reader reader, char[] buffer) {
+        this.reader = reader;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Moves to the next line.
+     *
+     * @return true if there is a next line, false at the end of the stream.
+     * @throws IOException the IO exception.
+     */
+    boolean nextLine() throws IOException {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if ((position < bufferOffset + limit || fill()) && buffer[(int) (position - bufferOffset)] == '\n') {
+                position++;
+            }
+        }
+        lineStart = position;
+        lineEnd = position;
+
+        int index = (int) (position - bufferOffset);
+        while (true) {
+            char[] chars = buffer;
+            int end = limit;
+            while (index < end) {
+                char c = chars[index];
+                if (c == '\n' || c == '\r') {
+                    lineEnd = bufferOffset + index;
+                    checkLineLength(lineEnd);
+                    position = lineEnd + 1;
+                    skipLineFeed = c == '\r';
+                    lineNumber++;
+                    return true;
+                }
+                index++;
+            }
+            long scanned = bufferOffset + index;
+            // stop before buffering the rest of a line that is already too long
+            checkLineLength(scanned);
+            if (!fill()) {
+                // last line without terminator
+                if (scanned == lineStart) {
+                    return false;
+                }
+                lineEnd = scanned;
+                position = scanned;
+                lineNumber++;
+                return true;
+            }
+            index = (int) (scanned - bufferOffset);
+        }
+    }
+
+    /**
+     * Checks that the current line is not longer than the maximum line length.
+     *
+     * @param end the offset in the stream the current line reaches.
+     * @throws LineTooLongException if the line is too long.
+     */
+    private void checkLineLength(long end) throws LineTooLongException {
+        if (maxLineLength > 0 && end - lineStart > maxLineLength) {
+            throw new LineTooLongException(lineNumber + 1, maxLineLength);
+        }
+    }
+
+    /**
+     * Sets the maximum length of a line. Moving to a longer line throws a {@link LineTooLongException}.
+     *
+     * @param maxLineLength the maximum number of characters of a line, or 0 for no limit.
+     */
+    void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Reads more characters, dropping the ones before the current line or the marked line.
+     *
+     * @return false if the end of the stream was reached.
+     * @throws IOException the IO exception.
+     */
+    private boolean fill() throws IOException {
+        while (!endOfStream) {
+            long keepFrom = marked ? Math.min(markLineStart, lineStart) : lineStart;
+            int drop = (int) (keepFrom - bufferOffset);
+            if (drop > 0) {
+                System.arraycopy(buffer, drop, buffer, 0, limit - drop);
+                limit -= drop;
+                bufferOffset = keepFrom;
+            }
+            if (buffer.length - limit < 2) {
+                // a line or a multiple line comment that does not fit the buffer, keeping room for a surrogate pair
+                char[] larger = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, larger, 0, limit);
+                buffer = larger;
+            }
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfStream = true;
+            } else if (read > 0) {
+                limit += read;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the current position, so that the lines after the current line can be read and the cursor moved back
+     * to the current line with {@link #reset()}.
+     */
+    void mark() {
+        marked = true;
+        markPosition = position;
+        markLineStart = lineStart;
+        markLineEnd = lineEnd;
+        markLineNumber = lineNumber;
+        markSkipLineFeed = skipLineFeed;
+    }
+
+    /**
+     * Moves back to the line that was current when {@link #mark()} was called.
+     */
+    void reset() {
+        marked = false;
+        position = markPosition;
+        lineStart = markLineStart;
+        lineEnd = markLineEnd;
+        lineNumber = markLineNumber;
+        skipLineFeed = markSkipLineFeed;
+    }
+
+    /**
+     * Returns the number of the current line.
+     *
+     * @return the line number, 0 before the first line.
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Sets the number of the current line, for a reader that does not start at the beginning of a file.
+     *
+     * @param lineNumber the number of the line before the next one.
+     */
+    void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the length of the current line, without its terminator.
+     */
+    @Override
+    public int length() {
+        return (int) (lineEnd - lineStart);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length());
+        }
+        return buffer[(int) (lineStart - bufferOffset) + index];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a String holding part of the current line.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + length());
+        }
+        return new String(buffer, (int) (lineStart - bufferOffset) + start, end - start);
+    }
+
+    /**
+     * Returns a copy of the current line.
+     *
+     * @return the current line.
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, (int) (lineStart - bufferOffset), length());
+    }
+
+    /**
+     * Closes the reader.
+     *
+     * @throws IOException the IO exception.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
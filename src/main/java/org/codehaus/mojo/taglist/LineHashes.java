@@ -0,0 +1,188 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The hashes of the lines of a file, computed from its bytes while the file is read, and where each line starts.
+ * <p>
+ * Lines end like {@link LineCursor} ends them, on "\n", "\r" or "\r\n", so line numbers are the same as in a scan.
+ * The terminators are not hashed. The bytes are hashed as they are, so the hashes are only comparable between two
+ * versions of a file read with the same encoding, which must end lines with single byte terminators.
+ * <p>
+ * The hashes of a previous version of a file are compared with the current ones to find the lines that changed: the
+ * lines before the first difference and after the last one are unchanged, and only the lines in between need to be
+ * scanned again.
+ */
+final class LineHashes {
+
+    /**
+     * The offset basis of the 64 bit FNV-1a hash.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * The prime of the 64 bit FNV-1a hash.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The hashes of the complete lines, first line first.
+     */
+    private long[] hashes = new long[1024];
+
+    /**
+     * The offset where each complete line starts.
+     */
+    private long[] starts = new long[1024];
+
+    /**
+     * The number of complete lines.
+     */
+    private int lineCount;
+
+    /**
+     * The hash of the line being read.
+     */
+    private long hash = FNV_OFFSET_BASIS;
+
+    /**
+     * The offset where the line being read starts.
+     */
+    private long lineStart;
+
+    /**
+     * The offset of the next byte.
+     */
+    private long offset;
+
+    /**
+     * True if the last byte was a carriage return, whose line is already ended.
+     */
+    private boolean previousWasCarriageReturn;
+
+    /**
+     * Hashes the next bytes of the file, from the position to the limit of the buffer. The buffer is left unchanged.
+     *
+     * @param bytes the next bytes of the file.
+     */
+    void update(ByteBuffer bytes) {
+        for (int i = bytes.position(); i < bytes.limit(); i++, offset++) {
+            byte b = bytes.get(i);
+            if (b == '\n' || b == '\r') {
+                if (!(b == '\n' && previousWasCarriageReturn)) {
+                    endLine();
+                }
+                lineStart = offset + 1;
+                previousWasCarriageReturn = b == '\r';
+            } else {
+                hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+                previousWasCarriageReturn = false;
+            }
+        }
+    }
+
+    /**
+     * Ends the last line at the end of the file, if it has no terminator.
+     */
+    void finish() {
+        if (lineStart < offset) {
+            endLine();
+            lineStart = offset;
+        }
+    }
+
+    /**
+     * Records the line being read.
+     */
+    private void endLine() {
+        if (lineCount == hashes.length) {
+            hashes = Arrays.copyOf(hashes, lineCount * 2);
+            starts = Arrays.copyOf(starts, lineCount * 2);
+        }
+        hashes[lineCount] = hash;
+        starts[lineCount] = lineStart;
+        lineCount++;
+        hash = FNV_OFFSET_BASIS;
+    }
+
+    /**
+     * Returns the number of lines of the file.
+     *
+     * @return the number of lines.
+     */
+    int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the hashes of the lines.
+     *
+     * @return one hash per line, first line first.
+     */
+    long[] getHashes() {
+        return Arrays.copyOf(hashes, lineCount);
+    }
+
+    /**
+     * Returns the offset where a line starts.
+     *
+     * @param lineNumber the number of the line, starting at 1.
+     * @return the offset of the first byte of the line.
+     */
+    long getLineStart(int lineNumber) {
+        return starts[lineNumber - 1];
+    }
+
+    /**
+     * Counts the lines at the beginning of two versions of a file that are the same.
+     *
+     * @param previous the hashes of the lines of the previous version.
+     * @param current the hashes of the lines of the current version.
+     * @return the number of leading lines that did not change.
+     */
+    static int commonPrefix(long[] previous, long[] current) {
+        int length = Math.min(previous.length, current.length);
+        int prefix = 0;
+        while (prefix < length && previous[prefix] == current[prefix]) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    /**
+     * Counts the lines at the end of two versions of a file that are the same, not counting the common prefix again.
+     *
+     * @param previous the hashes of the lines of the previous version.
+     * @param current the hashes of the lines of the current version.
+     * @param prefix the number of leading lines that did not change.
+     * @return the number of trailing lines that did not change.
+     */
+    static int commonSuffix(long[] previous, long[] current, int prefix) {
+        int length = Math.min(previous.length, current.length) - prefix;
+        int suffix = 0;
+        while (suffix < length && previous[previous.length - 1 - suffix] == current[current.length - 1 - suffix]) {
+            suffix++;
+        }
+        return suffix;
+    }
+}
@@ -0,0 +1,199 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The results of the files scanned by the previous builds run in this JVM, kept in memory as long as the plugin class
+ * loader lives, as it does with the Maven daemon.
+ * <p>
+ * The cache is bounded by the estimated heap size of its entries: the least recently used entries are evicted first.
+ * The cache is shared by all the builds and projects of the JVM, so its bound is the largest size any of them asked
+ * for: it never shrinks, so that a project asking for less does not evict the entries of the others. Entries are only
+ * valid for the scan configuration they were computed with; a file whose size or modification time changed is scanned
+ * again, as with the scan cache file.
+ */
+final class MemoryScanCache {
+
+    /**
+     * Estimated heap size of an entry besides its path, occurrences and line hashes: the map node, the entry and its
+     * fields.
+     */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    /**
+     * Estimated heap size of an occurrence besides its comment text.
+     */
+    private static final int OCCURRENCE_OVERHEAD = 96;
+
+    /**
+     * The cache of the plugin class loader.
+     */
+    private static final MemoryScanCache INSTANCE = new MemoryScanCache();
+
+    /**
+     * The cached files by absolute path, the least recently used first.
+     */
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated heap size the entries may use.
+     */
+    private long maxHeapSize;
+
+    /**
+     * The estimated heap size of the entries.
+     */
+    private long heapSize;
+
+    /**
+     * Constructor.
+     */
+    MemoryScanCache() {
+        // the cache of the plugin class loader is shared by all the builds
+    }
+
+    /**
+     * Returns the cache of the plugin class loader, bounded to at least the given size.
+     *
+     * @param maxHeapSize the estimated heap size the entries may use.
+     * @return the cache, bounded to the largest size asked for so far.
+     */
+    static MemoryScanCache getInstance(long maxHeapSize) {
+        INSTANCE.raiseMaxHeapSize(maxHeapSize);
+        return INSTANCE;
+    }
+
+    /**
+     * Raises the bound of the cache, which is kept if it is already larger.
+     *
+     * @param maxHeapSize the estimated heap size the entries may use.
+     */
+    synchronized void raiseMaxHeapSize(long maxHeapSize) {
+        this.maxHeapSize = Math.max(this.maxHeapSize, maxHeapSize);
+    }
+
+    /**
+     * Returns the results of a file scanned with a scan configuration.
+     *
+     * @param configuration the scan configuration.
+     * @param path the absolute path of the file.
+     * @return the results, or null if the file was not scanned with this configuration.
+     */
+    synchronized ScanCache.FileEntry get(String configuration, String path) {
+        CachedFile cached = files.get(path);
+        return cached == null || !cached.configuration.equals(configuration) ? null : cached.entry;
+    }
+
+    /**
+     * Records the results of a file, evicting the least recently used entries over the bound.
+     *
+     * @param configuration the scan configuration.
+     * @param path the absolute path of the file.
+     * @param entry the results.
+     */
+    synchronized void put(String configuration, String path, ScanCache.FileEntry entry) {
+        CachedFile cached = new CachedFile(configuration, entry, estimateHeapSize(path, entry));
+        CachedFile replaced = files.put(path, cached);
+        if (replaced != null) {
+            heapSize -= replaced.heapSize;
+        }
+        heapSize += cached.heapSize;
+        evict();
+    }
+
+    /**
+     * Returns the number of cached files.
+     *
+     * @return the number of entries.
+     */
+    synchronized int size() {
+        return files.size();
+    }
+
+    /**
+     * Evicts the least recently used entries until the entries fit in the bound.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, CachedFile>> iterator = files.entrySet().iterator();
+        while (heapSize > maxHeapSize && iterator.hasNext()) {
+            heapSize -= iterator.next().getValue().heapSize;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Estimates the heap size of an entry.
+     *
+     * @param path the absolute path of the file.
+     * @param entry the results of the file.
+     * @return the estimated size in bytes.
+     */
+    private static long estimateHeapSize(String path, ScanCache.FileEntry entry) {
+        long size = ENTRY_OVERHEAD + 2L * path.length();
+        if (entry.getLineHashes() != null) {
+            size += 8L * entry.getLineHashes().length;
+        }
+        for (TagOccurrence occurrence : entry.getOccurrences()) {
+            size += OCCURRENCE_OVERHEAD;
+            if (occurrence.getComment() != null) {
+                size += 2L * occurrence.getComment().length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The results of a file and the scan configuration they were computed with.
+     */
+    private static final class CachedFile {
+
+        /**
+         * The scan configuration.
+         */
+        private final String configuration;
+
+        /**
+         * The results of the file.
+         */
+        private final ScanCache.FileEntry entry;
+
+        /**
+         * The estimated heap size of the entry.
+         */
+        private final long heapSize;
+
+        /**
+         * Constructor.
+         *
+         * @param configuration the scan configuration.
+         * @param entry the results of the file.
+         * @param heapSize the estimated heap size of the entry.
+         */
+        CachedFile(String configuration, ScanCache.FileEntry entry, long heapSize) {
+            this.configuration = configuration;
+            this.entry = entry;
+            this.heapSize = heapSize;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The decoders and the buffers one scanning thread uses to read files, reused from one file to the next.
+ * <p>
+ * Decoders replace malformed input, so that a bad byte does not stop the scan of a file, except when a file is read as
+ * UTF-8 only because its first bytes are ASCII: the first byte that is not UTF-8 then fails the read with a
+ * {@link MalformedInputException}, and the caller reads the file again with the fallback encoding.
+ * <p>
+ * A scanner reads one file at a time: {@link #open(ReadableByteChannel, Charset, boolean, boolean, boolean)} fails if
+ * the buffers are still used by the previous file, in which case the caller uses new buffers instead.
+ */
+final class ScanBuffers extends Reader {
+
+    /**
+     * Size of the byte buffer.
+     */
+    private static final int BYTE_BUFFER_SIZE = 8192;
+
+    /**
+     * Size of the char buffer of the line cursor.
+     */
+    private static final int CHAR_BUFFER_SIZE = 8192;
+
+    /**
+     * The decoders created so far, by encoding.
+     */
+    private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+
+    /**
+     * The decoder of the files read as UTF-8 only because their first bytes are ASCII, or null if not created yet.
+     */
+    private CharsetDecoder tentativeDecoder;
+
+    /**
+     * The decoder of the file being read.
+     */
+    private CharsetDecoder decoder;
+
+    /**
+     * The bytes read from the file and not decoded yet.
+     */
+    private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+
+    /**
+     * The buffer of the line cursor.
+     */
+    private final char[] chars = new char[CHAR_BUFFER_SIZE];
+
+    /**
+     * The file being read, or null if the buffers are free.
+     */
+    private ReadableByteChannel channel;
+
+    /**
+     * True once the whole file has been read.
+     */
+    private boolean endOfInput;
+
+    /**
+     * True once the decoder has been flushed.
+     */
+    private boolean flushed;
+
+    /**
+     * Constructor.
+     */
+    ScanBuffers() {
+        // decoders are created for each encoding when first needed
+    }
+
+    /**
+     * Tells whether the buffers are free to read a new file.
+     *
+     * @return true if no file is being read.
+     */
+    boolean isFree() {
+        return channel == null;
+    }
+
+    /**
+     * Starts reading a file.
+     *
+     * @param fileChannel the file to read, closed with the returned cursor.
+     * @param charset the encoding of the file, or the fallback encoding if the encoding is detected.
+     * @param tentative true if the file is read as UTF-8 only because its first bytes are ASCII, so that the first
+     *            byte that is not UTF-8 fails the read.
+     * @param detectEncoding true to detect the encoding from the first bytes of the file.
+     * @param rejectBinary true to check that the first bytes of the file are text.
+     * @return a cursor on the lines of the file, using these buffers.
+     * @throws BinaryFileException if the file is rejected as binary; the file is closed.
+     * @throws IOException the IO exception.
+     */
+    LineCursor open(
+            ReadableByteChannel fileChannel,
+            Charset charset,
+            boolean tentative,
+            boolean detectEncoding,
+            boolean rejectBinary)
+            throws IOException {
+        if (channel != null) {
+            throw new IllegalStateException("The scan buffers are already in use");
+        }
+        channel = fileChannel;
+        endOfInput = false;
+        flushed = false;
+        bytes.clear();
+        Charset fileCharset = charset;
+        boolean strict = tentative;
+        if (detectEncoding || rejectBinary) {
+            // the first bytes are checked, then decoded from the buffer without reading them again
+            while (bytes.hasRemaining() && !endOfInput) {
+                endOfInput = channel.read(bytes) < 0;
+            }
+            bytes.flip();
+            if (detectEncoding) {
+                EncodingSniffer sniffed = EncodingSniffer.sniff(bytes, endOfInput, charset);
+                fileCharset = sniffed.getCharset();
+                strict = sniffed.isTentative();
+                bytes.position(sniffed.getSkip());
+            }
+            if (rejectBinary && EncodingSniffer.isBinary(bytes, fileCharset)) {
+                close();
+                throw new BinaryFileException();
+            }
+        } else {
+            bytes.flip();
+        }
+        if (strict) {
+            if (tentativeDecoder == null) {
+                tentativeDecoder = StandardCharsets.UTF_8
+                        .newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT);
+            }
+            decoder = tentativeDecoder;
+        } else {
+            decoder = decoders.computeIfAbsent(fileCharset, ScanBuffers::newDecoder);
+        }
+        decoder.reset();
+        return new LineCursor(this, chars);
+    }
+
+    /**
+     * Returns the encoding of the file being read.
+     *
+     * @return the charset of the current decoder.
+     */
+    Charset getCharset() {
+        return decoder.charset();
+    }
+
+    /**
+     * Creates a decoder that replaces malformed input like {@link java.io.InputStreamReader} does.
+     *
+     * @param charset the encoding.
+     * @return the decoder.
+     */
+    private static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see Reader#read(char[], int, int)
+     */
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        while (out.position() == offset) {
+            if (flushed) {
+                return -1;
+            }
+            CoderResult result = decoder.decode(bytes, out, endOfInput);
+            if (result.isUnderflow()) {
+                if (endOfInput) {
+                    decoder.flush(out);
+                    flushed = true;
+                } else {
+                    bytes.compact();
+                    if (channel.read(bytes) < 0) {
+                        endOfInput = true;
+                    }
+                    bytes.flip();
+                }
+            } else if (result.isError()) {
+                result.throwException();
+            }
+        }
+        return out.position() - offset;
+    }
+
+    /**
+     * Closes the file and frees the buffers for the next file.
+     *
+     * @throws IOException the IO exception.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,708 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.taglist.beans.SkippedFile;
+
+/**
+ * The results of a previous analysis, kept from one build to the next so that unchanged files are not scanned again.
+ * <p>
+ * A file is unchanged when its size and modification time are the same as when it was scanned. The line hashes of the
+ * files scanned in chunks are kept too, so that only the changed lines of these large files are scanned again. With
+ * trusted directory timestamps, the listings of the directories are kept too: a directory whose modification time did
+ * not change is not listed again, and its files are taken as unchanged without reading their attributes.
+ * <p>
+ * The cache is bound to the scan configuration: it is discarded when the tags or the scan options change. Only the
+ * files of the default file system are cached. The entries that are not used during an analysis are dropped when the
+ * cache is saved.
+ * <p>
+ * The file results can also be looked up in and recorded to the {@link MemoryScanCache} of the JVM, with or without a
+ * cache file.
+ */
+final class ScanCache {
+
+    /**
+     * The first bytes of a cache file.
+     */
+    private static final int MAGIC = 0x54474c43;
+
+    /**
+     * The version of the cache file format, increased when the format or the meaning of the occurrences change.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * The cache file, or null if the results are only kept in memory.
+     */
+    private final Path file;
+
+    /**
+     * The file results kept in memory by the previous builds in this JVM, or null.
+     */
+    private final MemoryScanCache memoryCache;
+
+    /**
+     * The scan configuration the results were computed with.
+     */
+    private final String configuration;
+
+    /**
+     * The file results read from the cache file, by absolute path.
+     */
+    private final Map<String, FileEntry> previousFiles;
+
+    /**
+     * The directory listings read from the cache file, by absolute path.
+     */
+    private final Map<String, DirectoryEntry> previousDirectories;
+
+    /**
+     * The file results of this analysis, saved at the end.
+     */
+    private final Map<String, FileEntry> files = new ConcurrentHashMap<>();
+
+    /**
+     * The directory listings of this analysis, saved at the end.
+     */
+    private final Map<String, DirectoryEntry> directories = new ConcurrentHashMap<>();
+
+    /**
+     * The files found in unchanged directories, whose previous results are used without reading their attributes.
+     */
+    private final Set<String> unchangedFiles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param file the cache file, or null.
+     * @param configuration the scan configuration.
+     * @param memoryCache the file results kept in memory, or null.
+     * @param previousFiles the file results of the previous analysis.
+     * @param previousDirectories the directory listings of the previous analysis.
+     */
+    private ScanCache(
+            Path file,
+            String configuration,
+            MemoryScanCache memoryCache,
+            Map<String, FileEntry> previousFiles,
+            Map<String, DirectoryEntry> previousDirectories) {
+        this.file = file;
+        this.memoryCache = memoryCache;
+        this.configuration = configuration;
+        this.previousFiles = previousFiles;
+        this.previousDirectories = previousDirectories;
+    }
+
+    /**
+     * Reads the cache of the previous analysis. The cache is empty if the file does not exist, cannot be read, or
+     * was written for another scan configuration.
+     *
+     * @param file the cache file.
+     * @param configuration the scan configuration of this analysis.
+     * @param log the log to report unreadable caches to.
+     * @return the cache.
+     */
+    static ScanCache load(Path file, String configuration, Log log) {
+        return load(file, configuration, null, log);
+    }
+
+    /**
+     * Reads the cache of the previous analysis, and looks up the files that are not in it in the memory cache.
+     *
+     * @param file the cache file, or null to only use the memory cache.
+     * @param configuration the scan configuration of this analysis.
+     * @param memoryCache the file results kept in memory, or null.
+     * @param log the log to report unreadable caches to.
+     * @return the cache.
+     */
+    static ScanCache load(Path file, String configuration, MemoryScanCache memoryCache, Log log) {
+        Map<String, FileEntry> previousFiles = new HashMap<>();
+        Map<String, DirectoryEntry> previousDirectories = new HashMap<>();
+        if (file == null) {
+            return new ScanCache(null, configuration, memoryCache, previousFiles, previousDirectories);
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !configuration.equals(readString(in))) {
+                log.debug("The scan cache " + file + " was written by another configuration, it is not used");
+            } else {
+                for (int count = in.readInt(); count > 0; count--) {
+                    previousFiles.put(readString(in), FileEntry.read(in));
+                }
+                for (int count = in.readInt(); count > 0; count--) {
+                    previousDirectories.put(readString(in), DirectoryEntry.read(in));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // first analysis
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read the scan cache " + file + ", all the files are scanned: " + e.getMessage());
+            previousFiles.clear();
+            previousDirectories.clear();
+        }
+        return new ScanCache(file, configuration, memoryCache, previousFiles, previousDirectories);
+    }
+
+    /**
+     * Returns the key of a path in the cache.
+     *
+     * @param path the file or directory.
+     * @return the absolute path, or null if the path is not on the default file system.
+     */
+    private static String key(Path path) {
+        return path.getFileSystem() == FileSystems.getDefault()
+                ? path.toAbsolutePath().toString()
+                : null;
+    }
+
+    /**
+     * Returns the previous results of a file found in an unchanged directory, and keeps them for the next analysis.
+     *
+     * @param path the file.
+     * @return the results, or null if the directory of the file changed or if the file was not scanned before.
+     */
+    FileEntry getUnchangedFile(Path path) {
+        String key = key(path);
+        if (key == null || !unchangedFiles.contains(key)) {
+            return null;
+        }
+        FileEntry entry = previousFiles.get(key);
+        if (entry != null) {
+            keep(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the previous results of a file if the file did not change, and keeps them for the next analysis.
+     *
+     * @param path the file.
+     * @param attributes the current attributes of the file.
+     * @return the results, or null if the file changed or was not scanned before.
+     */
+    FileEntry getFile(Path path, BasicFileAttributes attributes) {
+        String key = key(path);
+        if (key == null) {
+            return null;
+        }
+        FileEntry entry = previousFiles.get(key);
+        if (memoryCache != null && (entry == null || !entry.isUnchanged(attributes))) {
+            entry = memoryCache.get(configuration, key);
+        }
+        if (entry == null || !entry.isUnchanged(attributes)) {
+            return null;
+        }
+        keep(key, entry);
+        return entry;
+    }
+
+    /**
+     * Returns the previous results of a file, whether it changed or not.
+     *
+     * @param path the file.
+     * @return the results, or null if the file was not scanned before.
+     */
+    FileEntry getPreviousFile(Path path) {
+        String key = key(path);
+        if (key == null) {
+            return null;
+        }
+        FileEntry entry = previousFiles.get(key);
+        return entry == null && memoryCache != null ? memoryCache.get(configuration, key) : entry;
+    }
+
+    /**
+     * Records the results of a scanned file.
+     *
+     * @param path the file.
+     * @param entry the results.
+     */
+    void putFile(Path path, FileEntry entry) {
+        String key = key(path);
+        if (key != null) {
+            keep(key, entry);
+        }
+    }
+
+    /**
+     * Keeps the results of a file for the next analysis, in the cache file and in memory.
+     *
+     * @param key the key of the file.
+     * @param entry the results.
+     */
+    private void keep(String key, FileEntry entry) {
+        files.put(key, entry);
+        if (memoryCache != null) {
+            memoryCache.put(configuration, key, entry);
+        }
+    }
+
+    /**
+     * Returns the listing of a directory in the previous analysis.
+     *
+     * @param dir the directory.
+     * @return the listing, or null if the directory was not listed before.
+     */
+    DirectoryEntry getDirectory(Path dir) {
+        String key = key(dir);
+        return key == null ? null : previousDirectories.get(key);
+    }
+
+    /**
+     * Records the listing of a directory.
+     *
+     * @param dir the directory.
+     * @param entry the listing.
+     */
+    void putDirectory(Path dir, DirectoryEntry entry) {
+        String key = key(dir);
+        if (key != null) {
+            directories.put(key, entry);
+        }
+    }
+
+    /**
+     * Marks a file of an unchanged directory, so that its previous results are used without reading its attributes.
+     *
+     * @param path the file.
+     */
+    void trustFile(Path path) {
+        String key = key(path);
+        if (key != null) {
+            unchangedFiles.add(key);
+        }
+    }
+
+    /**
+     * Writes the results of this analysis to the cache file. The file is replaced at once, so that a failed build
+     * does not leave a truncated cache behind.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    void save() throws IOException {
+        if (file == null) {
+            // the results are only kept in memory
+            return;
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, configuration);
+            out.writeInt(files.size());
+            for (Map.Entry<String, FileEntry> entry : files.entrySet()) {
+                writeString(out, entry.getKey());
+                entry.getValue().write(out);
+            }
+            out.writeInt(directories.size());
+            for (Map.Entry<String, DirectoryEntry> entry : directories.entrySet()) {
+                writeString(out, entry.getKey());
+                entry.getValue().write(out);
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes a string that may be null or longer than {@link DataOutputStream#writeUTF(String)} allows.
+     *
+     * @param out the output.
+     * @param value the string, or null.
+     * @throws IOException the IO exception.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the input.
+     * @return the string, or null.
+     * @throws IOException the IO exception.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a list of strings.
+     *
+     * @param out the output.
+     * @param values the strings.
+     * @throws IOException the IO exception.
+     */
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Reads a list of strings written by {@link #writeStrings(DataOutputStream, List)}.
+     *
+     * @param in the input.
+     * @return the strings.
+     * @throws IOException the IO exception.
+     */
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * The results of the scan of one file.
+     */
+    static final class FileEntry {
+
+        /**
+         * The size of the file when it was scanned.
+         */
+        private final long size;
+
+        /**
+         * The modification time of the file when it was scanned, in milliseconds.
+         */
+        private final long lastModified;
+
+        /**
+         * The encoding the file was read with.
+         */
+        private final String encoding;
+
+        /**
+         * Whether the package of the file was known after the scan.
+         */
+        private final boolean packageKnown;
+
+        /**
+         * The package of the file, or null if it is not known or if the file has no package declaration.
+         */
+        private final String packageName;
+
+        /**
+         * Why the file was skipped, or null if it was not reported as skipped.
+         */
+        private final SkippedFile.Reason skipReason;
+
+        /**
+         * The occurrences found in the file, in line order.
+         */
+        private final List<TagOccurrence> occurrences;
+
+        /**
+         * The hashes of the lines of the file, or null if they were not computed.
+         */
+        private final long[] lineHashes;
+
+        /**
+         * Constructor.
+         *
+         * @param size the size of the file.
+         * @param lastModified the modification time of the file, in milliseconds.
+         * @param encoding the encoding the file was read with.
+         * @param packageKnown whether the package of the file is known.
+         * @param packageName the package of the file, or null.
+         * @param skipReason why the file was skipped, or null.
+         * @param occurrences the occurrences found in the file.
+         * @param lineHashes the hashes of the lines of the file, or null.
+         */
+        FileEntry(
+                long size,
+                long lastModified,
+                String encoding,
+                boolean packageKnown,
+                String packageName,
+                SkippedFile.Reason skipReason,
+                List<TagOccurrence> occurrences,
+                long[] lineHashes) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.encoding = encoding;
+            this.packageKnown = packageKnown;
+            this.packageName = packageName;
+            this.skipReason = skipReason;
+            this.occurrences = occurrences;
+            this.lineHashes = lineHashes;
+        }
+
+        /**
+         * Tells whether a file is unchanged since it was scanned.
+         *
+         * @param attributes the current attributes of the file.
+         * @return true if the file has the same size and modification time as when it was scanned.
+         */
+        boolean isUnchanged(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+
+        /**
+         * Returns the encoding the file was read with.
+         *
+         * @return the encoding.
+         */
+        String getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Tells whether the package of the file was known after the scan.
+         *
+         * @return true if {@link #getPackageName()} is the package of the file.
+         */
+        boolean isPackageKnown() {
+            return packageKnown;
+        }
+
+        /**
+         * Returns the package of the file.
+         *
+         * @return the package name, or null.
+         */
+        String getPackageName() {
+            return packageName;
+        }
+
+        /**
+         * Returns why the file was skipped.
+         *
+         * @return the reason, or null if the file was not reported as skipped.
+         */
+        SkippedFile.Reason getSkipReason() {
+            return skipReason;
+        }
+
+        /**
+         * Returns the occurrences found in the file.
+         *
+         * @return the occurrences, in line order.
+         */
+        List<TagOccurrence> getOccurrences() {
+            return occurrences;
+        }
+
+        /**
+         * Returns the hashes of the lines of the file.
+         *
+         * @return the line hashes, or null if they were not computed.
+         */
+        long[] getLineHashes() {
+            return lineHashes;
+        }
+
+        /**
+         * Writes this entry.
+         *
+         * @param out the output.
+         * @throws IOException the IO exception.
+         */
+        private void write(DataOutputStream out) throws IOException {
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            writeString(out, encoding);
+            out.writeBoolean(packageKnown);
+            writeString(out, packageName);
+            out.writeInt(skipReason == null ? -1 : skipReason.ordinal());
+            out.writeInt(occurrences.size());
+            for (TagOccurrence occurrence : occurrences) {
+                out.writeInt(occurrence.getTagClassIndex());
+                out.writeInt(occurrence.getLineNumber());
+                writeString(out, occurrence.getComment());
+                out.writeInt(occurrence.getColumn());
+                out.writeInt(occurrence.getContinuationLines());
+                writeString(out, occurrence.getCommentType());
+            }
+            out.writeInt(lineHashes == null ? -1 : lineHashes.length);
+            if (lineHashes != null) {
+                for (long hash : lineHashes) {
+                    out.writeLong(hash);
+                }
+            }
+        }
+
+        /**
+         * Reads an entry written by {@link #write(DataOutputStream)}.
+         *
+         * @param in the input.
+         * @return the entry.
+         * @throws IOException the IO exception.
+         */
+        private static FileEntry read(DataInputStream in) throws IOException {
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            String encoding = readString(in);
+            boolean packageKnown = in.readBoolean();
+            String packageName = readString(in);
+            int reason = in.readInt();
+            SkippedFile.Reason skipReason = reason < 0 ? null : SkippedFile.Reason.values()[reason];
+            int count = in.readInt();
+            List<TagOccurrence> occurrences = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int tagClassIndex = in.readInt();
+                int lineNumber = in.readInt();
+                String comment = readString(in);
+                int column = in.readInt();
+                int continuationLines = in.readInt();
+                String commentType = readString(in);
+                occurrences.add(
+                        comment != null
+                                ? new TagOccurrence(tagClassIndex, lineNumber, comment, continuationLines)
+                                : new TagOccurrence(tagClassIndex, lineNumber, column, continuationLines, commentType));
+            }
+            int lineCount = in.readInt();
+            long[] lineHashes = lineCount < 0 ? null : new long[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                lineHashes[i] = in.readLong();
+            }
+            return new FileEntry(
+                    size, lastModified, encoding, packageKnown, packageName, skipReason, occurrences, lineHashes);
+        }
+    }
+
+    /**
+     * The listing of one directory.
+     */
+    static final class DirectoryEntry {
+
+        /**
+         * The modification time of the directory when it was listed, in milliseconds.
+         */
+        private final long lastModified;
+
+        /**
+         * The names of the regular files of the directory, sorted.
+         */
+        private final List<String> fileNames;
+
+        /**
+         * The names of the subdirectories of the directory, sorted.
+         */
+        private final List<String> directoryNames;
+
+        /**
+         * Constructor.
+         *
+         * @param lastModified the modification time of the directory, in milliseconds.
+         * @param fileNames the names of the regular files, sorted.
+         * @param directoryNames the names of the subdirectories, sorted.
+         */
+        DirectoryEntry(long lastModified, List<String> fileNames, List<String> directoryNames) {
+            this.lastModified = lastModified;
+            this.fileNames = Collections.unmodifiableList(fileNames);
+            this.directoryNames = Collections.unmodifiableList(directoryNames);
+        }
+
+        /**
+         * Returns the modification time of the directory when it was listed.
+         *
+         * @return the modification time in milliseconds.
+         */
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns the names of the regular files of the directory.
+         *
+         * @return the file names, sorted.
+         */
+        List<String> getFileNames() {
+            return fileNames;
+        }
+
+        /**
+         * Returns the names of the subdirectories of the directory.
+         *
+         * @return the directory names, sorted.
+         */
+        List<String> getDirectoryNames() {
+            return directoryNames;
+        }
+
+        /**
+         * Writes this entry.
+         *
+         * @param out the output.
+         * @throws IOException the IO exception.
+         */
+        private void write(DataOutputStream out) throws IOException {
+            out.writeLong(lastModified);
+            writeStrings(out, fileNames);
+            writeStrings(out, directoryNames);
+        }
+
+        /**
+         * Reads an entry written by {@link #write(DataOutputStream)}.
+         *
+         * @param in the input.
+         * @return the entry.
+         * @throws IOException the IO exception.
+         */
+        private static DirectoryEntry read(DataInputStream in) throws IOException {
+            long lastModified = in.readLong();
+            List<String> fileNames = readStrings(in);
+            List<String> directoryNames = readStrings(in);
+            return new DirectoryEntry(lastModified, fileNames, directoryNames);
+        }
+    }
+}
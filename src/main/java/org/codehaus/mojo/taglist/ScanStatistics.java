@@ -0,0 +1,219 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters collected by the {@link FileAnalyser} while scanning, logged at debug level at the end of the analysis.
+ * <p>
+ * The counters can be updated by several scanning threads at once.
+ */
+public class ScanStatistics {
+
+    /**
+     * Number of scan buffers created.
+     */
+    private final LongAdder buffersAllocated = new LongAdder();
+
+    /**
+     * Number of times a scan buffer of a previous file was used again.
+     */
+    private final LongAdder buffersReused = new LongAdder();
+
+    /**
+     * Number of files left out because they are generated.
+     */
+    private final LongAdder generatedFilesSkipped = new LongAdder();
+
+    /**
+     * Number of files left out because their content is binary.
+     */
+    private final LongAdder binaryFilesSkipped = new LongAdder();
+
+    /**
+     * Number of directories not walked into because git ignores them.
+     */
+    private final LongAdder ignoredDirectoriesSkipped = new LongAdder();
+
+    /**
+     * Number of files whose results were taken from the scan cache.
+     */
+    private final LongAdder cachedFilesReused = new LongAdder();
+
+    /**
+     * Number of directories that were not listed because their modification time did not change.
+     */
+    private final LongAdder unchangedDirectories = new LongAdder();
+
+    /**
+     * Number of changed files of which only the changed lines were scanned again.
+     */
+    private final LongAdder partialRescans = new LongAdder();
+
+    /**
+     * Counts a new scan buffer.
+     */
+    void bufferAllocated() {
+        buffersAllocated.increment();
+    }
+
+    /**
+     * Counts the reuse of a scan buffer.
+     */
+    void bufferReused() {
+        buffersReused.increment();
+    }
+
+    /**
+     * Counts a generated file that is not scanned.
+     */
+    void generatedFileSkipped() {
+        generatedFilesSkipped.increment();
+    }
+
+    /**
+     * Counts a binary file that is not scanned.
+     */
+    void binaryFileSkipped() {
+        binaryFilesSkipped.increment();
+    }
+
+    /**
+     * Counts a directory ignored by git that is not walked into.
+     */
+    void ignoredDirectorySkipped() {
+        ignoredDirectoriesSkipped.increment();
+    }
+
+    /**
+     * Counts a file whose results are taken from the scan cache.
+     */
+    void cachedFileReused() {
+        cachedFilesReused.increment();
+    }
+
+    /**
+     * Counts a directory that is not listed because it did not change.
+     */
+    void unchangedDirectory() {
+        unchangedDirectories.increment();
+    }
+
+    /**
+     * Counts a changed file of which only the changed lines are scanned again.
+     */
+    void partialRescan() {
+        partialRescans.increment();
+    }
+
+    /**
+     * Returns the number of scan buffers created.
+     *
+     * @return the number of allocated buffers.
+     */
+    public long getBuffersAllocated() {
+        return buffersAllocated.sum();
+    }
+
+    /**
+     * Returns the number of times a scan buffer was used again for another file.
+     *
+     * @return the number of reused buffers.
+     */
+    public long getBuffersReused() {
+        return buffersReused.sum();
+    }
+
+    /**
+     * Returns the number of files that were not scanned because they are generated.
+     *
+     * @return the number of skipped generated files.
+     */
+    public long getGeneratedFilesSkipped() {
+        return generatedFilesSkipped.sum();
+    }
+
+    /**
+     * Returns the number of files that were not scanned because their content is binary.
+     *
+     * @return the number of skipped binary files.
+     */
+    public long getBinaryFilesSkipped() {
+        return binaryFilesSkipped.sum();
+    }
+
+    /**
+     * Returns the number of directories that were not walked into because git ignores them.
+     *
+     * @return the number of skipped ignored directories.
+     */
+    public long getIgnoredDirectoriesSkipped() {
+        return ignoredDirectoriesSkipped.sum();
+    }
+
+    /**
+     * Returns the number of files whose results were taken from the scan cache instead of scanning them.
+     *
+     * @return the number of reused file results.
+     */
+    public long getCachedFilesReused() {
+        return cachedFilesReused.sum();
+    }
+
+    /**
+     * Returns the number of directories that were not listed because their modification time did not change.
+     *
+     * @return the number of unchanged directories.
+     */
+    public long getUnchangedDirectories() {
+        return unchangedDirectories.sum();
+    }
+
+    /**
+     * Returns the number of changed files of which only the changed lines were scanned again.
+     *
+     * @return the number of partially scanned files.
+     */
+    public long getPartialRescans() {
+        return partialRescans.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "Scan buffers: %d allocated, %d reused; generated files skipped: %d; binary files skipped: %d;"
+                        + " ignored directories skipped: %d; cached files reused: %d; unchanged directories: %d;"
+                        + " partial rescans: %d",
+                getBuffersAllocated(),
+                getBuffersReused(),
+                getGeneratedFilesSkipped(),
+                getBinaryFilesSkipped(),
+                getIgnoredDirectoriesSkipped(),
+                getCachedFilesReused(),
+                getUnchangedDirectories(),
+                getPartialRescans());
+    }
+}
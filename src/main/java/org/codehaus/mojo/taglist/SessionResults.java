@@ -0,0 +1,143 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.codehaus.mojo.taglist.beans.CommentPool;
+import org.codehaus.mojo.taglist.beans.FileResult;
+import org.codehaus.mojo.taglist.beans.TagListResult;
+import org.codehaus.mojo.taglist.beans.TagResult;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * The analysis results shared by the executions of the report in one build, kept in the data of the repository
+ * session so that they are dropped with the session.
+ * <p>
+ * Results are keyed by the description of the analysis: the source directories and archives and the effective scan
+ * configuration. A result is only kept once a second execution asks for the same analysis, so that the results no
+ * other execution needs are neither kept until the end of the build nor have their deferred comments read. A shared
+ * result is read by several reports, possibly from several threads, so all its comments are read before it is
+ * shared; results whose comments were spilled to disk are not shared, their comment pool being closed once their
+ * report is generated.
+ * <p>
+ * The results are stored in the session under the class of the results, so that the versions of the plugin loaded by
+ * different class loaders in one build never see each other's results.
+ */
+final class SessionResults {
+
+    /**
+     * How many executions asked for an analysis that is not shared yet.
+     */
+    private enum Demand {
+        /**
+         * One execution asked for the analysis: its result is not kept.
+         */
+        ONCE,
+
+        /**
+         * Several executions asked for the analysis: the next result is kept.
+         */
+        AGAIN
+    }
+
+    /**
+     * The key of the shared results in the session data, unique to the class loader of the plugin.
+     */
+    private static final Object SESSION_KEY = TagListResult.class;
+
+    /**
+     * Utility class.
+     */
+    private SessionResults() {
+        // static methods only
+    }
+
+    /**
+     * Returns the result of an earlier analysis of this build, and records that the analysis is asked for.
+     *
+     * @param session the repository session of the build, or null.
+     * @param analysis the description of the analysis.
+     * @return the shared result, or null if the analysis was not shared yet in this build.
+     */
+    static TagListResult get(RepositorySystemSession session, String analysis) {
+        Map<String, Object> results = getResults(session);
+        if (results == null) {
+            return null;
+        }
+        Object result = results.merge(
+                analysis, Demand.ONCE, (previous, once) -> previous instanceof TagListResult ? previous : Demand.AGAIN);
+        return result instanceof TagListResult ? (TagListResult) result : null;
+    }
+
+    /**
+     * Shares the result of an analysis with the next executions of the report in this build, if another execution
+     * already asked for the same analysis.
+     *
+     * @param session the repository session of the build, or null.
+     * @param analysis the description of the analysis.
+     * @param result the result.
+     * @param commentPool the pool holding the comments of the result.
+     * @return true if the result is shared, in which case its comment pool must not be closed.
+     */
+    static boolean put(
+            RepositorySystemSession session, String analysis, TagListResult result, CommentPool commentPool) {
+        Map<String, Object> results = getResults(session);
+        if (results == null || results.get(analysis) != Demand.AGAIN || commentPool.getSpilledCount() > 0) {
+            return false;
+        }
+        // read the deferred comments now, so that the shared result is only read from then on
+        for (TagResult tagResult : result.getTagResults()) {
+            for (FileResult fileResult : tagResult.getFileResults()) {
+                for (int i = 0; i < fileResult.getCommentCount(); i++) {
+                    fileResult.getCommentAt(i);
+                }
+                if (commentPool.getSpilledCount() > 0) {
+                    // over the heap budget: the result is not shared, so the other comments are not read
+                    return false;
+                }
+            }
+        }
+        results.put(analysis, result);
+        return true;
+    }
+
+    /**
+     * Returns the shared results of a session, created on first use.
+     *
+     * @param session the repository session of the build, or null.
+     * @return the results, or the demand of the analyses not shared yet, by analysis, or null if there is no session.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getResults(RepositorySystemSession session) {
+        if (session == null) {
+            return null;
+        }
+        SessionData data = session.getData();
+        Object results = data.get(SESSION_KEY);
+        while (results == null) {
+            data.set(SESSION_KEY, null, new ConcurrentHashMap<String, Object>());
+            results = data.get(SESSION_KEY);
+        }
+        return (Map<String, Object>) results;
+    }
+}
@@ -23,9 +23,10 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -40,8 +41,11 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
-import org.codehaus.mojo.taglist.beans.FileReport;
-import org.codehaus.mojo.taglist.beans.TagReport;
+import org.codehaus.mojo.taglist.beans.CommentPool;
+import org.codehaus.mojo.taglist.beans.FileResult;
+import org.codehaus.mojo.taglist.beans.ResultSnapshot;
+import org.codehaus.mojo.taglist.beans.TagListResult;
+import org.codehaus.mojo.taglist.beans.TagResult;
 import org.codehaus.mojo.taglist.options.Tag;
 import org.codehaus.mojo.taglist.output.TagListXMLComment;
 import org.codehaus.mojo.taglist.output.TagListXMLFile;
@@ -191,9 +195,221 @@ public class TagListReport extends AbstractMavenReport {
     @Parameter(property = "taglist.skipEmptyReport", defaultValue = "false")
     private boolean skipEmptyReport;
 
+    /**
+     * Source files of at least this size in bytes are split at line boundaries into chunks that are scanned in
+     * parallel. Only used for UTF-8 and single byte encodings.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.parallelScanThreshold", defaultValue = "16777216")
+    private long parallelScanThreshold;
+
+    /**
+     * Only record where the comments are while scanning, and read their texts from the source files when the report
+     * is rendered. This makes the scan lighter when few comments are displayed, for instance with
+     * <code>skipEmptyReport</code>, at the cost of reading the files with tags a second time.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.deferComments", defaultValue = "false")
+    private boolean deferComments;
+
+    /**
+     * The estimated heap size in bytes the distinct comment texts may use. Once it is exceeded, new comment texts are
+     * written to a spill file in <code>xmlOutputDirectory</code> and read back from there when the report is rendered.
+     * Use 0 to keep all the texts on the heap.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.commentHeapBudget", defaultValue = "268435456")
+    private long commentHeapBudget;
+
+    /**
+     * Leave out the files and directories that git ignores, as given by the <code>.gitignore</code> files of the
+     * source directories and of their parents up to the repository root, and by <code>.git/info/exclude</code>.
+     * Ignored directories, like <code>node_modules</code> or local build outputs, are not walked into. The source
+     * directories themselves are always scanned, even if they are ignored, like generated sources under
+     * <code>target</code>.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.respectGitIgnore", defaultValue = "false")
+    private boolean respectGitIgnore;
+
+    /**
+     * A text file listing the source files to scan, one path per line, like the output of <code>git ls-files</code>
+     * or a file list written by the build system. Relative paths are resolved against the directory of the list.
+     * When set, the source directories are not walked: the listed files that are in a source directory and match
+     * <code>includes</code> and <code>excludes</code> are scanned, and the other ones are left out.
+     * <code>respectGitIgnore</code> does not apply to the listed files.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.fileListManifest")
+    private File fileListManifest;
+
+    /**
+     * Keep the results of each scanned file in a cache in <code>xmlOutputDirectory</code>, and reuse them in the next
+     * builds for the files whose size and modification time did not change. The cache is discarded when the tags or
+     * the scan options change. Source archives and files on other file systems are always scanned. The hashes of the
+     * lines of the files over <code>parallelScanThreshold</code> are kept too: when such a file changes, only the
+     * changed lines are scanned again.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.incrementalScan", defaultValue = "false")
+    private boolean incrementalScan;
+
+    /**
+     * With <code>incrementalScan</code>, keep the listings of the source directories in the cache too, and trust the
+     * modification times of the directories: a directory whose modification time did not change is not listed again,
+     * and its files are taken as unchanged without reading their size and modification time.
+     * <p>
+     * Subtrees are never skipped: the modification time of every directory is still read, since a change below a
+     * directory does not change the modification time of the directory, nor the ones of its parents.
+     * <p>
+     * The modification time of a directory only changes when files are added, removed or renamed in it. A file that
+     * is rewritten in place, as some editors and tools do, is not scanned again until a file of its directory is
+     * added, removed or renamed. Only enable this when the sources are written by tools that replace files, like git
+     * checkouts, or when stale results are acceptable.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.trustDirectoryTimestamps", defaultValue = "false")
+    private boolean trustDirectoryTimestamps;
+
+    /**
+     * The estimated heap size in bytes of the results of the scanned files to keep in memory from one build to the
+     * next, as long as the plugin is loaded. This helps with the Maven daemon, whose JVM runs many builds: files whose
+     * size and modification time did not change are not scanned again, without reading the cache file of
+     * <code>incrementalScan</code>. The least recently used results are evicted first. Use 0 to keep nothing.
+     * <p>
+     * The results are shared by all the projects and builds of the JVM, within the largest size any of them asked for
+     * since the plugin was loaded.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.memoryCacheSize", defaultValue = "0")
+    private long memoryCacheSize;
+
+    /**
+     * Keep a snapshot of the results in <code>xmlOutputDirectory</code>, and reuse it in the next builds when no input
+     * changed: same plugin version, same configuration, and the same files with the same sizes and modification
+     * times. The source files are then only listed, not read, and <code>taglist.xml</code> is not written again. The
+     * HTML report is always rendered from the results, so that it follows the locale of each site.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.reuseUpToDateResults", defaultValue = "false")
+    private boolean reuseUpToDateResults;
+
+    /**
+     * Share the results of an analysis with the other executions of the report in the same build: the report of each
+     * site locale, the executions of the report in several modules with the same sources, or a report that is checked
+     * and generated by two executions. An analysis is reused when it has the same source directories and archives and
+     * the same configuration; source files changed during the build are not seen.
+     * <p>
+     * The results of an analysis are kept once a second execution asks for it, so the third and later executions reuse
+     * them. Kept results stay in memory until the end of the build, whether or not another execution asks for them
+     * again. Their comments are all read before they are kept, which undoes <code>deferComments</code> for them, and
+     * results whose comments were spilled to disk over <code>commentHeapBudget</code> are not kept. Versions of the
+     * plugin loaded by different class loaders do not share their results.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.reuseResultsInSession", defaultValue = "false")
+    private boolean reuseResultsInSession;
+
+    /**
+     * Source archives, such as <code>-sources.jar</code> or zip files of vendored code, whose entries are scanned like
+     * the files of a source directory, without extracting them. <code>includes</code> and <code>excludes</code> apply
+     * to the entry names, and the entries are reported with names qualified by the archive name, like
+     * <code>foo-sources.jar!/org.foo.Bar</code>.
+     *
+     * @since 3.3.0
+     */
+    @Parameter
+    private File[] sourceArchives;
+
+    /**
+     * Source files larger than this size in bytes are not scanned, and are listed in the report as skipped. Use 0 to
+     * scan files of any size.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.maxFileSize", defaultValue = "0")
+    private long maxFileSize;
+
+    /**
+     * Source files with a line longer than this number of characters are not scanned, and are listed in the report as
+     * skipped. A limit leaves out minified and generated single line files, whose lines would otherwise be buffered and
+     * matched as a whole. Use 0 to scan lines of any length.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.maxLineLength", defaultValue = "0")
+    private int maxLineLength;
+
+    /**
+     * Leave out generated source files, which often hold boilerplate tags nobody acts on. A file is generated if its
+     * path matches one of <code>generatedPathPatterns</code> or if its first 512 bytes contain one of
+     * <code>generatedMarkers</code>. The number of skipped files is logged at debug level.
+     *
+     * @since 3.3.0
+     */
+    @Parameter(property = "taglist.skipGeneratedSources", defaultValue = "false")
+    private boolean skipGeneratedSources;
+
+    /**
+     * The texts that mark a source file as generated when found in its header, with
+     * <code>skipGeneratedSources</code>. Defaults to <code>@Generated</code>, <code>@generated</code> and
+     * <code>DO NOT EDIT</code>.
+     *
+     * @since 3.3.0
+     */
+    @Parameter
+    private String[] generatedMarkers;
+
+    /**
+     * The glob patterns of the absolute paths of generated source files, with <code>skipGeneratedSources</code>.
+     * Defaults to <code>**&#47;generated-sources/**</code> and <code>**&#47;generated-test-sources/**</code>.
+     *
+     * @since 3.3.0
+     */
+    @Parameter
+    private String[] generatedPathPatterns;
+
+    /**
+     * The source encoding as configured for the build, null if it is not set. Mirrors the <code>inputEncoding</code>
+     * of the base report, which defaults to the platform encoding instead.
+     */
+    @Parameter(property = "encoding", defaultValue = "${project.build.sourceEncoding}", readonly = true)
+    private String configuredEncoding;
+
     private final AtomicReference<List<String>> sourceDirs = new AtomicReference<>();
 
-    private Collection<TagReport> tagReportsResult;
+    private TagListResult tagListResult;
+
+    /**
+     * The pool of the comment texts of the analysis, closed once the report is generated.
+     */
+    private CommentPool commentPool;
+
+    /**
+     * The fingerprint of the inputs of the analysis, or null if the results are not kept for the next build.
+     */
+    private String inputFingerprint;
+
+    /**
+     * Set to true if the results were restored from the snapshot of a previous build with the same inputs.
+     */
+    private boolean upToDate;
+
+    /**
+     * Set to true if the results are shared with the other executions of the report in this build, in which case their
+     * comment pool is not closed.
+     */
+    private boolean sharedResult;
 
     /**
      * {@inheritDoc}
@@ -203,22 +419,47 @@ public class TagListReport extends AbstractMavenReport {
     @Override
     protected void executeReport(Locale locale) throws MavenReportException {
 
-        if (StringUtils.isEmpty(getInputEncoding())) {
-            getLog().warn("File encoding has not been set, using platform encoding "
+        if (isDetectEncoding()) {
+            getLog().warn("File encoding has not been set, reading files with a byte order mark or valid UTF-8 "
+                    + "content accordingly and the others with platform encoding "
                     + Charset.defaultCharset().displayName() + ", i.e. build is platform dependent!");
         }
 
         executeAnalysis();
 
-        // Renders the report
-        TaglistReportRenderer renderer = new TaglistReportRenderer(this, tagReportsResult);
-        renderer.setXrefLocation(constructXrefLocation(false));
-        renderer.setTestXrefLocation(constructXrefLocation(true));
-        renderer.setBundle(getBundle(locale));
-        renderer.render();
-
-        // Generate the XML report
-        generateXmlReport(tagReportsResult);
+        try {
+            // Renders the report
+            TaglistReportRenderer renderer = new TaglistReportRenderer(this, tagListResult);
+            renderer.setXrefLocation(constructXrefLocation(false));
+            renderer.setTestXrefLocation(constructXrefLocation(true));
+            renderer.setBundle(getBundle(locale));
+            renderer.render();
+
+            // Generate the XML report, unless the one of the previous build is still up to date
+            if (!upToDate || !new File(xmlOutputDirectory, "taglist.xml").isFile()) {
+                generateXmlReport(tagListResult);
+            }
+            if (inputFingerprint != null && !upToDate) {
+                try {
+                    ResultSnapshot.write(tagListResult, inputFingerprint, getSnapshotFile());
+                } catch (IOException e) {
+                    getLog().warn("Could not save the taglist result snapshot: " + e.getMessage());
+                }
+                // the snapshot of this analysis is written once, whatever the number of locales
+                inputFingerprint = null;
+            }
+        } finally {
+            // the result is kept for the next locales, unless its comments were spilled to a file that must not
+            // outlive the report; shared results are never spilled
+            if (!sharedResult && commentPool.getSpilledCount() > 0) {
+                tagListResult = null;
+                try {
+                    commentPool.close();
+                } catch (IOException e) {
+                    getLog().warn("Could not delete the comment spill file: " + e.getMessage());
+                }
+            }
+        }
     }
 
     protected String constructXrefLocation(boolean test) {
@@ -260,7 +501,7 @@ public class TagListReport extends AbstractMavenReport {
     }
 
     private void executeAnalysis() throws MavenReportException {
-        if (tagReportsResult != null) {
+        if (tagListResult != null) {
             // already analyzed
             return;
         }
@@ -274,6 +515,7 @@ public class TagListReport extends AbstractMavenReport {
             for (org.codehaus.mojo.taglist.options.TagClass tcOption : tagListOptions.getTagClasses()) {
                 // Store the tag class display name.
                 TagClass tc = new TagClass(tcOption.getDisplayName());
+                tc.getTagReport().setMaxDetails(tcOption.getMaxDetails());
 
                 // Scan each tag within this tag class.
                 for (Tag tagOption : tcOption.getTags()) {
@@ -307,13 +549,78 @@ public class TagListReport extends AbstractMavenReport {
 
         // let's proceed to the analysis
         FileAnalyser fileAnalyser = new FileAnalyser(this, tagClasses);
+        commentPool = fileAnalyser.getCommentPool();
+        upToDate = false;
+        inputFingerprint = null;
+        sharedResult = false;
+        String analysis = reuseResultsInSession ? fileAnalyser.describeAnalysis() : null;
+        if (analysis != null) {
+            tagListResult = SessionResults.get(repoSession, analysis);
+            if (tagListResult != null) {
+                getLog().info("Reusing the results of an earlier analysis of the same sources in this build");
+                sharedResult = true;
+                return;
+            }
+        }
         try {
-            tagReportsResult = fileAnalyser.execute();
+            if (reuseUpToDateResults) {
+                inputFingerprint = describeInputs(fileAnalyser);
+                tagListResult = readSnapshot();
+                if (tagListResult != null) {
+                    getLog().info("No source file changed, reusing the results of the previous build");
+                    upToDate = true;
+                }
+            }
+            if (tagListResult == null) {
+                tagListResult = TagListResult.freeze(fileAnalyser.execute(), fileAnalyser.getSkippedFiles());
+            }
+            if (analysis != null) {
+                sharedResult = SessionResults.put(repoSession, analysis, tagListResult, commentPool);
+            }
         } catch (IOException e) {
             throw new MavenReportException(e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new MavenReportException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the inputs of the analysis, including the version of the plugin and of the snapshot
+     * format so that a new plugin version never reuses older results.
+     *
+     * @param fileAnalyser the analyzer.
+     * @return the fingerprint.
+     * @throws IOException if the source directories cannot be walked.
+     */
+    private String describeInputs(FileAnalyser fileAnalyser) throws IOException {
+        String pluginVersion = mojoExecution == null ? "unknown" : mojoExecution.getVersion();
+        return pluginVersion + ":" + ResultSnapshot.FORMAT_VERSION + ":" + fileAnalyser.fingerprint();
+    }
+
+    /**
+     * Reads the results of the previous build if they were computed from the same inputs.
+     *
+     * @return the results, or null if they must be computed again.
+     */
+    private TagListResult readSnapshot() {
+        try {
+            return ResultSnapshot.read(getSnapshotFile(), inputFingerprint, commentPool);
+        } catch (IOException e) {
+            getLog().warn("Could not read the taglist result snapshot, the sources are scanned again: "
+                    + e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * Returns the file where the results are kept for the next build.
+     *
+     * @return the snapshot file.
+     */
+    private File getSnapshotFile() {
+        return new File(xmlOutputDirectory, "taglist-snapshot.bin");
+    }
+
     private TagClass createTagClass(String tag) {
         TagClass tc = new TagClass(tag);
         try {
@@ -328,31 +635,31 @@ public class TagListReport extends AbstractMavenReport {
     /**
      * Generate an XML report that can be used by other plugins like the dashboard plugin.
      *
-     * @param tagReports a collection of the tag reports to be output.
+     * @param result the sorted result of the analysis to be output.
      */
-    private void generateXmlReport(Collection<TagReport> tagReports) {
+    private void generateXmlReport(TagListResult result) {
         TagListXMLReport report = new TagListXMLReport();
         report.setModelEncoding(getInputEncoding());
 
         // Iterate through each tag and populate an XML tag object.
-        for (TagReport tagReport : tagReports) {
+        for (TagResult tagResult : result.getTagResults()) {
             TagListXMLTag tag = new TagListXMLTag();
-            tag.setName(tagReport.getTagName());
-            tag.setCount(Integer.toString(tagReport.getTagCount()));
+            tag.setName(tagResult.getTagName());
+            tag.setCount(Integer.toString(tagResult.getTagCount()));
 
             // Iterate though each file that contains the current tag and generate an
             // XML file object within the current XML tag object.
-            for (FileReport fileReport : tagReport.getFileReports()) {
+            for (FileResult fileResult : tagResult.getFileResults()) {
                 TagListXMLFile file = new TagListXMLFile();
-                file.setName(fileReport.getClassName());
-                file.setCount(Integer.toString(fileReport.getLineIndexes().size()));
+                file.setName(fileResult.getClassName());
+                file.setCount(Integer.toString(fileResult.getTagCount()));
 
                 // Iterate though each comment that contains the tag and generate an
                 // XML comment object within the current xml file object.
-                for (Integer lineNumber : fileReport.getLineIndexes()) {
+                for (int i = 0; i < fileResult.getCommentCount(); i++) {
                     TagListXMLComment comment = new TagListXMLComment();
-                    comment.setLineNumber(Integer.toString(lineNumber));
-                    comment.setComment(fileReport.getComment(lineNumber));
+                    comment.setLineNumber(Integer.toString(fileResult.getLineIndexAt(i)));
+                    comment.setComment(fileResult.getCommentAt(i));
 
                     file.addComment(comment);
                 }
@@ -399,14 +706,14 @@ public class TagListReport extends AbstractMavenReport {
      */
     @Override
     public boolean canGenerateReport() throws MavenReportException {
-        boolean canGenerate = !getSourceDirs().isEmpty();
+        boolean canGenerate = !getSourceDirs().isEmpty() || !getSourceArchives().isEmpty();
         if (aggregate && !getProject().isExecutionRoot()) {
             canGenerate = false;
         }
 
         if (canGenerate) {
             executeAnalysis();
-            return !skipEmptyReport || tagReportsResult.stream().anyMatch(tagReport -> tagReport.getTagCount() > 0);
+            return !skipEmptyReport || tagListResult.hasOccurrences();
         }
 
         return false;
@@ -421,7 +728,9 @@ public class TagListReport extends AbstractMavenReport {
     private List<String> pruneSourceDirs(List<String> sourceDirectories) throws IOException {
         List<String> pruned = new ArrayList<>(sourceDirectories.size());
         for (String dir : sourceDirectories) {
-            if (!pruned.contains(dir) && hasSources(new File(dir))) {
+            // with a file list, the directories are not walked to find out whether they have sources
+            if (!pruned.contains(dir)
+                    && (fileListManifest != null ? new File(dir).isDirectory() : hasSources(new File(dir)))) {
                 pruned.add(dir);
             }
         }
@@ -507,6 +816,60 @@ public class TagListReport extends AbstractMavenReport {
         return sourceDirs.get();
     }
 
+    /**
+     * Tells whether the files and directories ignored by git are left out.
+     *
+     * @return the respectGitIgnore.
+     */
+    public boolean isRespectGitIgnore() {
+        return respectGitIgnore;
+    }
+
+    /**
+     * Returns the file listing the source files to scan.
+     *
+     * @return the fileListManifest, or null if the source directories are walked.
+     */
+    public File getFileListManifest() {
+        return fileListManifest;
+    }
+
+    /**
+     * Returns the file where the results of the scanned files are kept from one build to the next.
+     *
+     * @return the scan cache file, or null if the files are always scanned.
+     */
+    public File getScanCacheFile() {
+        return incrementalScan ? new File(xmlOutputDirectory, "scan-cache.bin") : null;
+    }
+
+    /**
+     * Returns the estimated heap size of the results of the scanned files to keep in memory for the next builds.
+     *
+     * @return the memoryCacheSize in bytes, 0 if nothing is kept.
+     */
+    public long getMemoryCacheSize() {
+        return memoryCacheSize;
+    }
+
+    /**
+     * Tells whether the unchanged directories are not listed again.
+     *
+     * @return the trustDirectoryTimestamps.
+     */
+    public boolean isTrustDirectoryTimestamps() {
+        return trustDirectoryTimestamps;
+    }
+
+    /**
+     * Returns the source archives whose entries are scanned.
+     *
+     * @return the source archives, empty if none are configured.
+     */
+    List<File> getSourceArchives() {
+        return sourceArchives == null ? Collections.emptyList() : Arrays.asList(sourceArchives);
+    }
+
     /**
      * Get the files to include, as a comma separated list of patterns.
      */
@@ -591,6 +954,97 @@ public class TagListReport extends AbstractMavenReport {
         return showEmptyDetails;
     }
 
+    /**
+     * Returns the size in bytes from which source files are scanned in parallel chunks.
+     *
+     * @return the parallel scan threshold.
+     */
+    public long getParallelScanThreshold() {
+        return parallelScanThreshold;
+    }
+
+    /**
+     * Tells whether the comment texts are read from the source files only when the report needs them.
+     *
+     * @return the deferComments.
+     */
+    public boolean isDeferComments() {
+        return deferComments;
+    }
+
+    /**
+     * Returns the size in bytes over which source files are skipped.
+     *
+     * @return the maximum file size, 0 for no limit.
+     */
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Returns the number of characters over which a line makes its source file skipped.
+     *
+     * @return the maximum line length, 0 for no limit.
+     */
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    /**
+     * Tells whether generated source files are left out of the scan.
+     *
+     * @return the skipGeneratedSources.
+     */
+    public boolean isSkipGeneratedSources() {
+        return skipGeneratedSources;
+    }
+
+    /**
+     * Returns the texts that mark a source file as generated.
+     *
+     * @return the generated markers, or null for the defaults.
+     */
+    public String[] getGeneratedMarkers() {
+        return generatedMarkers;
+    }
+
+    /**
+     * Returns the glob patterns of the paths of generated source files.
+     *
+     * @return the generated path patterns, or null for the defaults.
+     */
+    public String[] getGeneratedPathPatterns() {
+        return generatedPathPatterns;
+    }
+
+    /**
+     * Tells whether the encoding of each source file is detected, because the source encoding is not set. The byte
+     * order mark or a UTF-8 check of a file then give its encoding, the platform encoding being the fallback.
+     *
+     * @return true if the source encoding is not configured.
+     */
+    public boolean isDetectEncoding() {
+        return StringUtils.isEmpty(configuredEncoding);
+    }
+
+    /**
+     * Returns the estimated heap size in bytes the comment texts may use before they are spilled to a file.
+     *
+     * @return the comment heap budget, 0 for no limit.
+     */
+    public long getCommentHeapBudget() {
+        return commentHeapBudget;
+    }
+
+    /**
+     * Returns the directory where the comment texts are spilled when the heap budget is exceeded.
+     *
+     * @return the spill directory, or null for the temporary directory.
+     */
+    public File getSpillDirectory() {
+        return xmlOutputDirectory;
+    }
+
     /**
      * Get the absolute path to the XML output directory.
      *
@@ -0,0 +1,150 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * A single tag found by the {@link FileAnalyser} while scanning a file.
+ * <p>
+ * Occurrences are collected per file before they are added to the tag reports, so that parts of a file can be
+ * scanned independently and merged back in line order.
+ */
+class TagOccurrence {
+    /**
+     * The index of the matching tag class in the analyzer's tag class list.
+     */
+    private final int tagClassIndex;
+
+    /**
+     * The line number of the comment (or first line if multi-lined).
+     */
+    private final int lineNumber;
+
+    /**
+     * The comment text, or null if the comment is deferred.
+     */
+    private final String comment;
+
+    /**
+     * The column where a deferred comment starts on the line of the tag.
+     */
+    private final int column;
+
+    /**
+     * The number of lines after the tag line the comment continues on.
+     */
+    private final int continuationLines;
+
+    /**
+     * The type of a deferred comment, "*" or "//".
+     */
+    private final String commentType;
+
+    /**
+     * Constructor.
+     *
+     * @param tagClassIndex the index of the matching tag class.
+     * @param lineNumber the line number of the comment.
+     * @param comment the comment text.
+     * @param continuationLines the number of lines after the tag line the comment continues on.
+     */
+    TagOccurrence(int tagClassIndex, int lineNumber, String comment, int continuationLines) {
+        this(tagClassIndex, lineNumber, comment, 0, continuationLines, null);
+    }
+
+    /**
+     * Constructor for a comment that is read from the file when it is needed.
+     *
+     * @param tagClassIndex the index of the matching tag class.
+     * @param lineNumber the line number of the comment.
+     * @param column the column where the comment starts, after the tag.
+     * @param continuationLines the number of lines after the tag line the comment continues on.
+     * @param commentType the type of the comment, "*" or "//".
+     */
+    TagOccurrence(int tagClassIndex, int lineNumber, int column, int continuationLines, String commentType) {
+        this(tagClassIndex, lineNumber, null, column, continuationLines, commentType);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tagClassIndex the index of the matching tag class.
+     * @param lineNumber the line number of the comment.
+     * @param comment the comment text, or null if the comment is deferred.
+     * @param column the column where a deferred comment starts.
+     * @param continuationLines the number of lines after the tag line the comment continues on.
+     * @param commentType the type of a deferred comment.
+     */
+    private TagOccurrence(
+            int tagClassIndex, int lineNumber, String comment, int column, int continuationLines, String commentType) {
+        this.tagClassIndex = tagClassIndex;
+        this.lineNumber = lineNumber;
+        this.comment = comment;
+        this.column = column;
+        this.continuationLines = continuationLines;
+        this.commentType = commentType;
+    }
+
+    /**
+     * Returns this occurrence moved to another line, after lines were added or removed above it.
+     *
+     * @param lines the number of lines to move the occurrence down, negative to move it up.
+     * @return the moved occurrence.
+     */
+    TagOccurrence shift(int lines) {
+        return new TagOccurrence(tagClassIndex, lineNumber + lines, comment, column, continuationLines, commentType);
+    }
+
+    /**
+     * Returns the last line this occurrence was read from: the comment may end on the line after its last one.
+     *
+     * @return the line number of the last line the scan looked at for this occurrence.
+     */
+    int getLastLineRead() {
+        return lineNumber + continuationLines + 1;
+    }
+
+    int getTagClassIndex() {
+        return tagClassIndex;
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    String getComment() {
+        return comment;
+    }
+
+    boolean isDeferred() {
+        return comment == null;
+    }
+
+    int getColumn() {
+        return column;
+    }
+
+    int getContinuationLines() {
+        return continuationLines;
+    }
+
+    String getCommentType() {
+        return commentType;
+    }
+}
@@ -20,14 +20,16 @@ package org.codehaus.mojo.taglist;
  */
 
 import java.io.File;
+import java.text.MessageFormat;
 import java.util.Collection;
+import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import org.apache.maven.reporting.AbstractMavenReportRenderer;
-import org.codehaus.mojo.taglist.beans.FileReport;
-import org.codehaus.mojo.taglist.beans.TagReport;
+import org.codehaus.mojo.taglist.beans.FileResult;
+import org.codehaus.mojo.taglist.beans.SkippedFile;
+import org.codehaus.mojo.taglist.beans.TagListResult;
+import org.codehaus.mojo.taglist.beans.TagResult;
 
 /**
  * Generates the taglist report using Doxia.
@@ -56,9 +58,9 @@ public class TaglistReportRenderer extends AbstractMavenReportRenderer {
     private final File reportOutputDirectory;
 
     /**
-     * A list of sorted tag reports.
+     * The sorted result of the analysis.
      */
-    private final SortedSet<TagReport> sortedTagReports;
+    private final TagListResult result;
 
     /**
      * Display details for tags that contain zero occurrences.
@@ -68,12 +70,12 @@ public class TaglistReportRenderer extends AbstractMavenReportRenderer {
     /**
      * Constructor.
      *
-     * @param report     the TagListReport object used in this build.
-     * @param tagReports a collection of tagReports to output.
+     * @param report the TagListReport object used in this build.
+     * @param result the sorted result of the analysis to output.
      */
-    public TaglistReportRenderer(TagListReport report, Collection<TagReport> tagReports) {
+    public TaglistReportRenderer(TagListReport report, TagListResult result) {
         super(report.getSink());
-        this.sortedTagReports = new TreeSet<>(tagReports);
+        this.result = result;
         this.reportOutputDirectory = report.getReportOutputDirectory();
         this.showEmptyDetails = report.isShowEmptyDetails();
     }
@@ -92,18 +94,21 @@ public class TaglistReportRenderer extends AbstractMavenReportRenderer {
         startSection(bundle.getString("report.taglist.mainTitle"));
 
         // Summary section
-        doSummarySection(sortedTagReports);
+        doSummarySection(result.getTagResults());
+        if (!result.getSkippedFiles().isEmpty()) {
+            doSkippedFilesPart(result.getSkippedFiles());
+        }
 
         // Detail section
-        doDetailSection(sortedTagReports);
+        doDetailSection(result.getTagResults());
 
         endSection();
     }
 
     /**
-     * @param tagReports a collection of tagReports to summarize.
+     * @param tagResults a collection of tagResults to summarize.
      */
-    private void doSummarySection(Collection<TagReport> tagReports) {
+    private void doSummarySection(Collection<TagResult> tagResults) {
 
         paragraph(bundle.getString("report.taglist.summary.description"));
 
@@ -115,66 +120,89 @@ public class TaglistReportRenderer extends AbstractMavenReportRenderer {
             bundle.getString("report.taglist.summary.tagstrings")
         });
 
-        for (TagReport tagReport : tagReports) {
-            doTagSummary(tagReport);
+        for (TagResult tagResult : tagResults) {
+            doTagSummary(tagResult);
         }
 
         endTable();
     }
 
     /**
-     * @param tagReport the tagReport to summarize.
+     * @param skippedFiles the files that were not scanned because they are over the scan limits.
+     */
+    private void doSkippedFilesPart(Collection<SkippedFile> skippedFiles) {
+        paragraph(MessageFormat.format(
+                bundle.getString("report.taglist.skipped.description"), String.valueOf(skippedFiles.size())));
+
+        startTable();
+        tableHeader(new String[] {
+            bundle.getString("report.taglist.skipped.file"), bundle.getString("report.taglist.skipped.reason")
+        });
+        for (SkippedFile skippedFile : skippedFiles) {
+            tableRow(new String[] {
+                skippedFile.getPath(),
+                bundle.getString("report.taglist.skipped.reason." + skippedFile.getReason().getKey())
+            });
+        }
+        endTable();
+    }
+
+    /**
+     * @param tagResult the tagResult to summarize.
      */
-    private void doTagSummary(TagReport tagReport) {
+    private void doTagSummary(TagResult tagResult) {
 
-        String[] tags = tagReport.getTagStrings();
         String tagsAsString = null;
-        if (tags != null) {
-            tagsAsString = String.join(", ", tags);
+        if (!tagResult.getTagStrings().isEmpty()) {
+            tagsAsString = String.join(", ", tagResult.getTagStrings());
         }
 
         tableRow(new String[] {
             createLinkPatternedText(
-                    tagReport.getTagName(),
-                    showEmptyDetails || tagReport.getTagCount() > 0 ? "#" + tagReport.getHTMLSafeLinkName() : null),
-            String.valueOf(tagReport.getTagCount()),
+                    tagResult.getTagName(),
+                    showEmptyDetails || tagResult.getTagCount() > 0 ? "#" + tagResult.getHTMLSafeLinkName() : null),
+            String.valueOf(tagResult.getTagCount()),
             tagsAsString
         });
     }
 
     /**
-     * @param tagReports a collection of tagReports to be detailed in this section.
+     * @param tagResults a collection of tagResults to be detailed in this section.
      */
-    private void doDetailSection(Collection<TagReport> tagReports) {
+    private void doDetailSection(Collection<TagResult> tagResults) {
         paragraph(bundle.getString("report.taglist.detail.description"));
 
-        for (TagReport tagReport : tagReports) {
-            doTagDetailedPart(tagReport);
+        for (TagResult tagResult : tagResults) {
+            doTagDetailedPart(tagResult);
         }
     }
 
     /**
-     * @param tagReport to tagReport to detail.
+     * @param tagResult to tagResult to detail.
      */
-    private void doTagDetailedPart(TagReport tagReport) {
+    private void doTagDetailedPart(TagResult tagResult) {
         // Create detailed section only if the "showEmptyTags" flag is set or the tag contains 1 or more occurrences.
-        if (!showEmptyDetails && tagReport.getTagCount() <= 0) {
+        if (!showEmptyDetails && tagResult.getTagCount() <= 0) {
             return;
         }
 
-        startSection(tagReport.getTagName(), tagReport.getHTMLSafeLinkName());
+        startSection(tagResult.getTagName(), tagResult.getHTMLSafeLinkName());
 
-        paragraph(bundle.getString("report.taglist.detail.numberOfOccurrences") + ' ' + tagReport.getTagCount());
+        paragraph(bundle.getString("report.taglist.detail.numberOfOccurrences") + ' ' + tagResult.getTagCount());
 
-        Collection<FileReport> fileReports = tagReport.getFileReports();
-        SortedSet<FileReport> sortedFileReports = new TreeSet<>(fileReports);
+        if (tagResult.isDetailsCapped()) {
+            doCappedDetailsPart(tagResult);
+        }
 
         // MTAGLIST-38 - sink table before generating each file report in order
         //               to align the columns correctly.
         startTable();
 
-        for (FileReport sortedFileReport : sortedFileReports) {
-            doFileDetailedPart(sortedFileReport);
+        for (FileResult fileResult : tagResult.getFileResults()) {
+            // files whose occurrences were all past the maximum number of details only appear in the counts
+            if (fileResult.getCommentCount() > 0) {
+                doFileDetailedPart(fileResult);
+            }
         }
 
         endTable();
@@ -183,48 +211,85 @@ public class TaglistReportRenderer extends AbstractMavenReportRenderer {
     }
 
     /**
-     * @param fileReport the FileReport to output for this detailed tag report.
+     * @param tagResult the tagResult whose details were capped, to give the exact counts by package.
      */
-    private void doFileDetailedPart(FileReport fileReport) {
-
-        tableHeader(new String[] {fileReport.getClassName(), bundle.getString("report.taglist.detail.line")});
+    private void doCappedDetailsPart(TagResult tagResult) {
+        paragraph(MessageFormat.format(
+                bundle.getString("report.taglist.detail.capped"),
+                String.valueOf(tagResult.getDetailCount()),
+                String.valueOf(tagResult.getTagCount())));
 
-        for (Integer integer : fileReport.getLineIndexes()) {
-            doCommentLine(fileReport, integer);
+        startTable();
+        tableHeader(new String[] {
+            bundle.getString("report.taglist.detail.package"),
+            bundle.getString("report.taglist.detail.packageOccurrences")
+        });
+        for (Map.Entry<String, Integer> packageCount : tagResult.getPackageCounts().entrySet()) {
+            tableRow(new String[] {packageCount.getKey(), String.valueOf(packageCount.getValue())});
         }
+        endTable();
     }
 
     /**
-     * @param fileReport the FileReport for the current tag's comment.
-     * @param lineNumber the line number of the current tag's comment.
+     * @param fileResult the FileResult to output for this detailed tag report.
      */
-    private void doCommentLine(FileReport fileReport, Integer lineNumber) {
+    private void doFileDetailedPart(FileResult fileResult) {
 
-        String comment = fileReport.getComment(lineNumber);
-        if (comment == null || comment.isEmpty()) {
-            comment = "--" + bundle.getString("report.taglist.nocomment") + "--";
+        tableHeader(new String[] {fileResult.getClassName(), bundle.getString("report.taglist.detail.line")});
+
+        String fileLink = getXrefFileLink(fileResult);
+        for (int i = 0; i < fileResult.getCommentCount(); i++) {
+            doCommentLine(fileResult, i, fileLink);
         }
+    }
 
-        String link = null;
+    /**
+     * Returns the link to the source xref page of a file, if that page exists.
+     *
+     * @param fileResult the FileResult to link.
+     * @return the link, or null if the file is not in the source or test xref.
+     */
+    private String getXrefFileLink(FileResult fileResult) {
+        String xrefPath = fileResult.getXrefPath();
+        if (xrefPath == null) {
+            return null;
+        }
         if (xrefLocation != null) {
-            String fileLink = xrefLocation + "/" + fileReport.getClassNameWithSlash() + ".html";
+            String fileLink = xrefLocation + "/" + xrefPath;
             File xrefFile = new File(reportOutputDirectory, fileLink.substring(2));
 
             // Link only if file exists in xref
             if (xrefFile.exists()) {
-                link = fileLink + "#L" + lineNumber;
+                return fileLink;
             }
         }
         // If the file was not linked to xref and there is a test xref location check it
-        if (link == null && testXrefLocation != null) {
-            String testFileLink = testXrefLocation + "/" + fileReport.getClassNameWithSlash() + ".html";
+        if (testXrefLocation != null) {
+            String testFileLink = testXrefLocation + "/" + xrefPath;
             File testXrefFile = new File(reportOutputDirectory, testFileLink.substring(2));
 
             // Link only if file exists in test xref
             if (testXrefFile.exists()) {
-                link = testFileLink + "#L" + lineNumber;
+                return testFileLink;
             }
         }
+        return null;
+    }
+
+    /**
+     * @param fileResult the FileResult for the current tag's comment.
+     * @param position the position of the current tag's comment in the file result.
+     * @param fileLink the link to the xref page of the file, or null.
+     */
+    private void doCommentLine(FileResult fileResult, int position, String fileLink) {
+
+        int lineNumber = fileResult.getLineIndexAt(position);
+        String comment = fileResult.getCommentAt(position);
+        if (comment == null || comment.isEmpty()) {
+            comment = "--" + bundle.getString("report.taglist.nocomment") + "--";
+        }
+
+        String link = fileLink != null ? fileLink + "#L" + lineNumber : null;
 
         // we can not use convenience method here ...
         // https://github.com/mojohaus/taglist-maven-plugin/issues/165
@@ -0,0 +1,211 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of the comment texts found during an analysis.
+ * <p>
+ * Identical comments, like the many "Auto-generated method stub" ones, are stored only once. File reports keep the
+ * id of the comment in the pool instead of the text.
+ * <p>
+ * A pool can be given a heap budget: once the estimated size of its texts exceeds the budget, new texts are written
+ * to a spill file and read back from it when needed. The pool must then be closed to delete the file.
+ */
+public class CommentPool implements Closeable {
+
+    /**
+     * Estimated heap size of a pooled text besides its characters: the String, its array, the map entry and the list
+     * slot.
+     */
+    private static final int TEXT_OVERHEAD = 96;
+
+    /**
+     * The estimated heap size the texts may use before they are spilled to a file, or 0 for no limit.
+     */
+    private final long heapBudget;
+
+    /**
+     * The directory of the spill file, or null for the temporary directory.
+     */
+    private final File spillDirectory;
+
+    /**
+     * The estimated heap size of the texts kept on the heap.
+     */
+    private long heapSize;
+
+    /**
+     * The texts stored in the spill file, or null until the heap budget is exceeded.
+     */
+    private SpilledComments spilled;
+
+    /**
+     * The ids of the pooled comments.
+     */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * The pooled comments, indexed by id.
+     */
+    private final List<String> comments = new ArrayList<>();
+
+    /**
+     * Number of comments added to the pool.
+     */
+    private long lookupCount;
+
+    /**
+     * Number of comments that were already in the pool.
+     */
+    private long hitCount;
+
+    /**
+     * Constructor for a pool without heap budget.
+     */
+    public CommentPool() {
+        this(0, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param heapBudget the estimated heap size in bytes the texts may use before they are spilled, or 0 for no limit.
+     * @param spillDirectory the directory to create the spill file in, or null for the temporary directory.
+     */
+    public CommentPool(long heapBudget, File spillDirectory) {
+        this.heapBudget = heapBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Adds a comment to the pool, unless an identical comment is already there.
+     *
+     * @param comment the comment text.
+     * @return the id of the comment in the pool.
+     */
+    public int add(String comment) {
+        lookupCount++;
+        Integer id = ids.get(comment);
+        if (id != null) {
+            hitCount++;
+            return id;
+        }
+        if (spilled != null) {
+            int spilledId = spilled.find(comment);
+            if (spilledId >= 0) {
+                hitCount++;
+                return comments.size() + spilledId;
+            }
+            return comments.size() + spilled.add(comment);
+        }
+
+        long textSize = TEXT_OVERHEAD + 2L * comment.length();
+        if (heapBudget > 0 && heapSize + textSize > heapBudget) {
+            // from now on, new texts go to the spill file
+            try {
+                spilled = new SpilledComments(spillDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create the comment spill file", e);
+            }
+            return comments.size() + spilled.add(comment);
+        }
+        heapSize += textSize;
+        int newId = comments.size();
+        comments.add(comment);
+        ids.put(comment, newId);
+        return newId;
+    }
+
+    /**
+     * Returns a pooled comment.
+     *
+     * @param id the id of the comment.
+     * @return the comment text.
+     */
+    public String get(int id) {
+        return id < comments.size() ? comments.get(id) : spilled.get(id - comments.size());
+    }
+
+    /**
+     * Returns the number of distinct comments in the pool.
+     *
+     * @return the number of distinct comments.
+     */
+    public int size() {
+        return comments.size() + getSpilledCount();
+    }
+
+    /**
+     * Returns the number of distinct comments stored in the spill file.
+     *
+     * @return the number of spilled comments.
+     */
+    public int getSpilledCount() {
+        return spilled == null ? 0 : spilled.size();
+    }
+
+    /**
+     * Returns the number of comments added to the pool.
+     *
+     * @return the number of lookups.
+     */
+    public long getLookupCount() {
+        return lookupCount;
+    }
+
+    /**
+     * Returns the number of comments that were already in the pool when added.
+     *
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the share of added comments that were already in the pool.
+     *
+     * @return the hit rate, between 0 and 1.
+     */
+    public double getHitRate() {
+        return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+    }
+
+    /**
+     * Deletes the spill file, if any. Spilled comments can not be read anymore.
+     *
+     * @throws IOException the IO exception.
+     */
+    @Override
+    public void close() throws IOException {
+        if (spilled != null) {
+            spilled.close();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The comments of one file that are only read from the file when they are first asked for.
+ * <p>
+ * While scanning, only the position of each comment is recorded: the line of the tag, the column where the comment
+ * starts and the number of continuation lines. The texts of all the comments of the file are built in a single read
+ * of the file the first time one of them is needed, and stored in the comment pool.
+ */
+public final class DeferredComments {
+
+    /**
+     * The initial capacity of the span arrays.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The file the comments are in.
+     */
+    private final SourceFileInfo sourceFile;
+
+    /**
+     * The pool the comment texts are stored in once read.
+     */
+    private final CommentPool commentPool;
+
+    /**
+     * Whether a leading byte order mark is dropped on reading, as the scan does when it detects the encoding.
+     */
+    private final boolean skipByteOrderMark;
+
+    /**
+     * The line numbers of the tags.
+     */
+    private int[] lines = new int[INITIAL_CAPACITY];
+
+    /**
+     * The columns where the comments start on the line of the tag.
+     */
+    private int[] columns = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of lines the comments continue on.
+     */
+    private int[] continuationLines = new int[INITIAL_CAPACITY];
+
+    /**
+     * The types of the comments, "*" or "//".
+     */
+    private String[] commentTypes = new String[INITIAL_CAPACITY];
+
+    /**
+     * The number of recorded comments.
+     */
+    private int size;
+
+    /**
+     * The ids of the comment texts in the pool, or null until the file has been read.
+     */
+    private int[] commentIds;
+
+    /**
+     * Constructor.
+     *
+     * @param sourceFile the file the comments are in.
+     * @param commentPool the pool to store the comment texts in.
+     */
+    public DeferredComments(SourceFileInfo sourceFile, CommentPool commentPool) {
+        this(sourceFile, commentPool, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sourceFile the file the comments are in.
+     * @param commentPool the pool to store the comment texts in.
+     * @param skipByteOrderMark whether a leading byte order mark is not counted in the columns of the first line.
+     * @since 3.3.0
+     */
+    public DeferredComments(SourceFileInfo sourceFile, CommentPool commentPool, boolean skipByteOrderMark) {
+        this.sourceFile = sourceFile;
+        this.commentPool = commentPool;
+        this.skipByteOrderMark = skipByteOrderMark;
+    }
+
+    /**
+     * Records the position of a comment.
+     *
+     * @param line the line number of the tag.
+     * @param column the column where the comment starts, after the tag.
+     * @param continuations the number of lines after the tag line the comment continues on.
+     * @param commentType the type of the comment, "*" or "//".
+     * @return the index of the comment, to pass to {@link #get(int)}.
+     */
+    public synchronized int add(int line, int column, int continuations, String commentType) {
+        if (size == lines.length) {
+            lines = Arrays.copyOf(lines, size * 2);
+            columns = Arrays.copyOf(columns, size * 2);
+            continuationLines = Arrays.copyOf(continuationLines, size * 2);
+            commentTypes = Arrays.copyOf(commentTypes, size * 2);
+        }
+        lines[size] = line;
+        columns[size] = column;
+        continuationLines[size] = continuations;
+        commentTypes[size] = commentType;
+        commentIds = null;
+        return size++;
+    }
+
+    /**
+     * Returns the text of a comment, reading the file if the comments have not been read yet.
+     *
+     * @param index the index of the comment returned by {@link #add(int, int, int, String)}.
+     * @return the comment.
+     * @throws UncheckedIOException if the file can not be read anymore.
+     */
+    public synchronized String get(int index) {
+        if (commentIds == null) {
+            commentIds = readComments();
+        }
+        return commentPool.get(commentIds[index]);
+    }
+
+    /**
+     * Returns the number of recorded comments.
+     *
+     * @return the number of comments.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Reads the lines of all the recorded comments in one pass over the file and builds their texts.
+     *
+     * @return the ids of the comment texts in the pool.
+     */
+    private int[] readComments() {
+        // keep only the lines that are part of a comment
+        BitSet neededLines = new BitSet();
+        for (int i = 0; i < size; i++) {
+            neededLines.set(lines[i], lines[i] + continuationLines[i] + 1);
+        }
+        int lastLine = neededLines.length() - 1;
+        Map<Integer, String> commentLines = new HashMap<>();
+        try (LineNumberReader reader = new LineNumberReader(getReader())) {
+            String line = reader.readLine();
+            if (skipByteOrderMark && line != null && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            while (line != null && reader.getLineNumber() <= lastLine) {
+                if (neededLines.get(reader.getLineNumber())) {
+                    commentLines.put(reader.getLineNumber(), line);
+                }
+                line = reader.readLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while reading the comments of " + sourceFile.getPathKey(), e);
+        }
+
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder comment = new StringBuilder();
+            String first = firstLineComment(commentLines.getOrDefault(lines[i], ""), columns[i]);
+            if (first != null) {
+                comment.append(first);
+            }
+            for (int line = lines[i] + 1; line <= lines[i] + continuationLines[i]; line++) {
+                String continuation = commentLines.get(line);
+                if (continuation != null) {
+                    comment.append(' ').append(continuationComment(continuation, commentTypes[i]));
+                }
+            }
+            ids[i] = commentPool.add(comment.toString());
+        }
+        return ids;
+    }
+
+    /**
+     * Opens the file with its encoding.
+     *
+     * @return a reader on the file.
+     * @throws IOException the IO exception.
+     */
+    private Reader getReader() throws IOException {
+        String encoding = sourceFile.getEncoding();
+        return (encoding == null)
+                ? new InputStreamReader(sourceFile.openInputStream())
+                : new InputStreamReader(sourceFile.openInputStream(), encoding);
+    }
+
+    /**
+     * Extracts the comment that follows a tag on its line.
+     *
+     * @param line the line of the tag.
+     * @param column the column right after the tag.
+     * @return the comment, or null if there is no text after the tag.
+     */
+    public static String firstLineComment(String line, int column) {
+        String firstLine = StringUtils.strip(line.substring(Math.min(column, line.length())));
+        firstLine = StringUtils.removeEnd(firstLine, "*/"); // MTAGLIST-35
+        if (firstLine.isEmpty() || ":".equals(firstLine)) {
+            return null;
+        }
+        return (firstLine.charAt(0) == ':') ? firstLine.substring(1).trim() : firstLine;
+    }
+
+    /**
+     * Extracts the text of a line a comment continues on.
+     *
+     * @param line the continuation line.
+     * @param commentType the type of the comment, "*" or "//".
+     * @return the text after the comment marker.
+     */
+    public static String continuationComment(String line, String commentType) {
+        return line.substring(line.indexOf(commentType) + commentType.length()).trim();
+    }
+}
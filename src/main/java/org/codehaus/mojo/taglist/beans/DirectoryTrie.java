@@ -0,0 +1,240 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Trie of the directories holding the scanned files.
+ * <p>
+ * Each directory is stored once as a node pointing to its parent, and directory names are interned, so the long
+ * common path prefixes of the files of an aggregate report are shared. Paths are rebuilt from the nodes when needed.
+ * <p>
+ * Directories can belong to any NIO file system, for instance an in-memory one; each file system has its own roots.
+ */
+public class DirectoryTrie {
+
+    /**
+     * The file system roots, by file system and name.
+     */
+    private final Map<FileSystem, Map<String, Node>> roots = new HashMap<>();
+
+    /**
+     * The interned path segments and package names.
+     */
+    private final Map<String, String> names = new HashMap<>();
+
+    /**
+     * Returns the node of a directory, creating it and its parents if needed.
+     *
+     * @param directory the directory.
+     * @return the directory node.
+     */
+    public Node getDirectory(File directory) {
+        return getDirectory(directory.toPath());
+    }
+
+    /**
+     * Returns the node of a directory, creating it and its parents if needed.
+     *
+     * @param directory the directory, on any file system.
+     * @return the directory node.
+     */
+    public synchronized Node getDirectory(Path directory) {
+        Path path = directory.toAbsolutePath().normalize();
+        FileSystem fileSystem = path.getFileSystem();
+        Path rootPath = path.getRoot();
+        String rootName = rootPath == null ? "" : rootPath.toString();
+        Node node = roots.computeIfAbsent(fileSystem, fs -> new HashMap<>())
+                .computeIfAbsent(intern(rootName), name -> new Node(fileSystem, null, name));
+        for (Path segment : path) {
+            node = node.child(intern(segment.toString()));
+        }
+        return node;
+    }
+
+    /**
+     * Returns the shared instance of a name.
+     *
+     * @param name a path segment or package name.
+     * @return the interned name.
+     */
+    public synchronized String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        String interned = names.putIfAbsent(name, name);
+        return interned != null ? interned : name;
+    }
+
+    /**
+     * A directory in the trie.
+     */
+    public static final class Node {
+
+        /**
+         * The file system of the directory.
+         */
+        private final FileSystem fileSystem;
+
+        /**
+         * The parent directory, or null for a file system root.
+         */
+        private final Node parent;
+
+        /**
+         * The directory name, or the root name for a file system root.
+         */
+        private final String name;
+
+        /**
+         * The hash code, computed from the parent and the name.
+         */
+        private final int hash;
+
+        /**
+         * The sub directories, created when the first one is added.
+         */
+        private Map<String, Node> children;
+
+        /**
+         * Constructor.
+         *
+         * @param fileSystem the file system of the directory.
+         * @param parent the parent directory, or null for a file system root.
+         * @param name the directory name.
+         */
+        private Node(FileSystem fileSystem, Node parent, String name) {
+            this.fileSystem = fileSystem;
+            this.parent = parent;
+            this.name = name;
+            this.hash = (parent == null ? 0 : parent.hash * 31) + name.hashCode();
+        }
+
+        /**
+         * Returns a sub directory, creating it if needed.
+         *
+         * @param childName the interned name of the sub directory.
+         * @return the sub directory node.
+         */
+        private Node child(String childName) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(childName, n -> new Node(fileSystem, this, n));
+        }
+
+        /**
+         * Returns the parent directory.
+         *
+         * @return the parent node, or null for a file system root.
+         */
+        public Node getParent() {
+            return parent;
+        }
+
+        /**
+         * Returns the directory name.
+         *
+         * @return the name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Rebuilds the absolute path of the directory.
+         *
+         * @return the path.
+         */
+        public String getPath() {
+            if (parent == null) {
+                return name;
+            }
+            String parentPath = parent.getPath();
+            if (parent.parent == null) {
+                // the root name already ends with a separator
+                return parentPath + name;
+            }
+            return parentPath + fileSystem.getSeparator() + name;
+        }
+
+        /**
+         * Rebuilds the directory as a path of its file system.
+         *
+         * @return the directory.
+         */
+        public Path toPath() {
+            return fileSystem.getPath(getPath());
+        }
+
+        /**
+         * Rebuilds the directory as a file.
+         *
+         * @return the directory.
+         * @throws UnsupportedOperationException if the directory is not on the default file system.
+         */
+        public File toFile() {
+            return toPath().toFile();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Nodes of the same trie are unique, nodes of different tries are equal when they have the same path.
+         *
+         * @see Object#equals(Object)
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            return hash == other.hash
+                    && name.equals(other.name)
+                    && fileSystem.equals(other.fileSystem)
+                    && Objects.equals(parent, other.parent);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return getPath();
+        }
+    }
+}
@@ -19,17 +19,11 @@ package org.codehaus.mojo.taglist.beans;
  * under the License.
  */
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeSet;
 
 /**
  * Report for a file.
@@ -39,29 +33,44 @@ import java.util.TreeSet;
 public class FileReport implements Comparable<FileReport> {
 
     /**
-     * The file being analyzed.
+     * The metadata of the file being analyzed, shared with the reports of other tag classes.
      */
-    private final File file;
+    private final SourceFileInfo sourceFile;
 
     /**
-     * The character encoding of the source file
+     * The initial capacity of the line number and comment arrays.
      */
-    private final String encoding;
+    private static final int INITIAL_CAPACITY = 4;
 
     /**
-     * The name of the class corresponding to this file.
+     * The line numbers of the comments, in ascending order.
      */
-    private String className;
+    private int[] lineIndexes;
 
     /**
-     * Pair values of a line number and a comment. Map of [Integer,String].
+     * The ids of the comments in the comment pool, at the same position as their line number.
      */
-    private final Map<Integer, String> tagListing;
+    private int[] commentIds;
 
     /**
-     * The package identification string.
+     * The pool holding the comment texts.
      */
-    private static final String PACKAGE_STR = "package";
+    private final CommentPool commentPool;
+
+    /**
+     * The comments of the file that have not been read yet, or null if all comments are in the pool.
+     */
+    private DeferredComments deferredComments;
+
+    /**
+     * The number of comments in this report.
+     */
+    private int size;
+
+    /**
+     * The number of occurrences that were only counted, without their comment.
+     */
+    private int undetailedCount;
 
     /**
      * Constructor.
@@ -70,19 +79,102 @@ public class FileReport implements Comparable<FileReport> {
      * @param encoding the file encoding to use for the report.
      */
     public FileReport(File file, String encoding) {
-        this.file = file;
-        this.encoding = encoding;
-        this.tagListing = new HashMap<>();
+        this(new SourceFileInfo(file, encoding, null), new CommentPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param file The file to analyze, on any file system.
+     * @param encoding the file encoding to use for the report.
+     */
+    public FileReport(Path file, String encoding) {
+        this(new SourceFileInfo(file, encoding, null), new CommentPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sourceFile the metadata of the file to analyze.
+     * @param commentPool the pool to store the comment texts in, shared by all reports of an analysis.
+     */
+    public FileReport(SourceFileInfo sourceFile, CommentPool commentPool) {
+        this.sourceFile = sourceFile;
+        this.commentPool = commentPool;
+        this.lineIndexes = new int[INITIAL_CAPACITY];
+        this.commentIds = new int[INITIAL_CAPACITY];
     }
 
     /**
      * Adds a new entry to the list of tags found for this file report.
+     * <p>
+     * The scanner adds the comments in line order, so they are appended. A comment for a line that is already in the
+     * report replaces the previous one.
      *
      * @param comment the comment string containing the 'todo'.
      * @param lineIndex the line number of the comment (or first line if multi-lined).
      */
     public void addComment(String comment, int lineIndex) {
-        tagListing.put(lineIndex, comment);
+        addCommentId(commentPool.add(comment), lineIndex);
+    }
+
+    /**
+     * Adds a new entry whose comment is only read from the file when it is asked for.
+     *
+     * @param comments the deferred comments of the file, the same for all the entries of this report.
+     * @param index the index of the comment in the deferred comments.
+     * @param lineIndex the line number of the comment (or first line if multi-lined).
+     */
+    public void addComment(DeferredComments comments, int index, int lineIndex) {
+        deferredComments = comments;
+        // deferred comments are stored as negative ids
+        addCommentId(-1 - index, lineIndex);
+    }
+
+    /**
+     * Adds a comment id at its line.
+     *
+     * @param commentId the id of the comment in the pool, or a negative deferred comment index.
+     * @param lineIndex the line number of the comment.
+     */
+    private void addCommentId(int commentId, int lineIndex) {
+        int position = size;
+        if (size > 0 && lineIndex <= lineIndexes[size - 1]) {
+            position = Arrays.binarySearch(lineIndexes, 0, size, lineIndex);
+            if (position >= 0) {
+                commentIds[position] = commentId;
+                return;
+            }
+            position = -position - 1;
+        }
+
+        if (size == lineIndexes.length) {
+            lineIndexes = Arrays.copyOf(lineIndexes, size * 2);
+            commentIds = Arrays.copyOf(commentIds, size * 2);
+        }
+        if (position < size) {
+            System.arraycopy(lineIndexes, position, lineIndexes, position + 1, size - position);
+            System.arraycopy(commentIds, position, commentIds, position + 1, size - position);
+        }
+        lineIndexes[position] = lineIndex;
+        commentIds[position] = commentId;
+        size++;
+    }
+
+    /**
+     * Counts an occurrence without keeping its comment, because the tag class has enough details already.
+     */
+    public void countComment() {
+        undetailedCount++;
+    }
+
+    /**
+     * Returns the metadata of the analyzed file.
+     *
+     * @return the source file metadata.
+     */
+    public SourceFileInfo getSourceFile() {
+        return sourceFile;
     }
 
     /**
@@ -92,69 +184,127 @@ public class FileReport implements Comparable<FileReport> {
      * @return the file path.
      */
     public String getClassNameWithSlash() {
-        return className.replace('.', '/');
+        return sourceFile.getClassNameWithSlash();
     }
 
     /**
-     * Access an input reader that uses the current file encoding.
+     * Returns the complete name of the analyzed class, for instance: org.codehaus.mojo.taglist.beans.FileReport.
      *
-     * @param fileToRead the file to open in the reader.
-     * @throws IOException the IO exception.
-     * @return a reader with the current file encoding.
+     * @return the full class name.
      */
-    private Reader getReader(File fileToRead) throws IOException {
-        InputStream in = Files.newInputStream(fileToRead.toPath());
-        return (encoding == null) ? new InputStreamReader(in) : new InputStreamReader(in, encoding);
+    public String getClassName() {
+        return sourceFile.getClassName();
     }
 
     /**
-     * Returns the complete name of the analyzed class, for instance: org.codehaus.mojo.taglist.beans.FileReport.
+     * Returns the list of the comment line indexes, in ascending order.
      *
-     * @return the full class name.
+     * @return Collection of Integer.
      */
-    public String getClassName() {
-        if (className != null) {
-            return className;
-        }
-        // need to compute it (only once)
-        String packageName = null;
-        try (BufferedReader reader = new BufferedReader(getReader(file))) {
-            String currentLine = reader.readLine();
-            if (currentLine != null) {
-                currentLine = currentLine.trim();
+    public Collection<Integer> getLineIndexes() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int position) {
+                return getLineIndexAt(position);
             }
-            while (currentLine != null) {
-                if (currentLine.startsWith(PACKAGE_STR)) {
-                    packageName = currentLine
-                            .substring(PACKAGE_STR.length())
-                            .trim()
-                            .replaceAll(";", "")
-                            .trim();
-                    break;
-                }
-                String nextLine = reader.readLine();
-                if (nextLine == null) {
-                    currentLine = nextLine;
-                } else {
-                    currentLine = nextLine.trim();
-                }
+
+            @Override
+            public int size() {
+                return size;
             }
-        } catch (IOException e) {
-            packageName = "unknown";
+        };
+    }
+
+    /**
+     * Returns the number of comments found in this file.
+     *
+     * @return the number of comments.
+     */
+    public int getCommentCount() {
+        return size;
+    }
+
+    /**
+     * Returns the number of occurrences of the tag in this file, including the ones without kept comment.
+     *
+     * @return the number of occurrences.
+     */
+    public int getTagCount() {
+        return size + undetailedCount;
+    }
+
+    /**
+     * Returns the line index of a comment. Comments are ordered by line index.
+     *
+     * @param position the position of the comment, from 0 to {@link #getCommentCount()} - 1.
+     * @return the line index.
+     */
+    public int getLineIndexAt(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
         }
+        return lineIndexes[position];
+    }
 
-        className = packageName + "." + file.getName().replaceAll("\\.java$", "");
+    /**
+     * Returns the comment at a position. Comments are ordered by line index.
+     *
+     * @param position the position of the comment, from 0 to {@link #getCommentCount()} - 1.
+     * @return the comment.
+     */
+    public String getCommentAt(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+        }
+        return getComment(commentPool, deferredComments, commentIds[position]);
+    }
 
-        return className;
+    /**
+     * Returns the text of a comment id.
+     *
+     * @param commentPool the pool of the comment texts.
+     * @param deferredComments the comments of the file that have not been read yet, or null.
+     * @param commentId the id of the comment in the pool, or a negative deferred comment index.
+     * @return the comment.
+     */
+    static String getComment(CommentPool commentPool, DeferredComments deferredComments, int commentId) {
+        return commentId >= 0 ? commentPool.get(commentId) : deferredComments.get(-1 - commentId);
     }
 
     /**
-     * Returns the list of the comment line indexes.
+     * Returns a copy of the line indexes, trimmed to the number of comments.
      *
-     * @return Collection of Integer.
+     * @return the line indexes in ascending order.
      */
-    public Collection<Integer> getLineIndexes() {
-        return new TreeSet<>(tagListing.keySet());
+    int[] copyLineIndexes() {
+        return Arrays.copyOf(lineIndexes, size);
+    }
+
+    /**
+     * Returns a copy of the comment ids, trimmed to the number of comments.
+     *
+     * @return the comment ids in line order.
+     */
+    int[] copyCommentIds() {
+        return Arrays.copyOf(commentIds, size);
+    }
+
+    /**
+     * Returns the pool holding the comment texts.
+     *
+     * @return the comment pool.
+     */
+    CommentPool getCommentPool() {
+        return commentPool;
+    }
+
+    /**
+     * Returns the comments of the file that have not been read yet.
+     *
+     * @return the deferred comments, or null.
+     */
+    DeferredComments getDeferredComments() {
+        return deferredComments;
     }
 
     /**
@@ -164,17 +314,25 @@ public class FileReport implements Comparable<FileReport> {
      * @return the comment.
      */
     public String getComment(Integer lineIndex) {
-        return tagListing.get(lineIndex);
+        int position = Arrays.binarySearch(lineIndexes, 0, size, lineIndex);
+        return position >= 0 ? getComment(commentPool, deferredComments, commentIds[position]) : null;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * File reports are sorted by class name, then by path. Both keys are known once the file has been scanned, so
+     * comparing does not read the file.
      *
      * @see Comparable#compareTo(Object)
      */
     public int compareTo(FileReport o) {
         if (o != null) {
-            return this.getClassName().compareTo(o.getClassName());
+            int result = this.getClassName().compareTo(o.getClassName());
+            if (result == 0) {
+                result = sourceFile.getPathKey().compareTo(o.sourceFile.getPathKey());
+            }
+            return result;
         } else {
             return 0;
         }
@@ -186,12 +344,13 @@ public class FileReport implements Comparable<FileReport> {
      * @see Object#equals(Object)
      */
     public boolean equals(Object r) {
-        // In Java 5 the PriorityQueue.remove method uses the
-        // compareTo method, while in Java 6 it uses the equals method.
+        if (this == r) {
+            return true;
+        }
         if (!(r instanceof FileReport)) {
             return false;
         }
-        return (this.compareTo((FileReport) r) == 0);
+        return sourceFile.equals(((FileReport) r).sourceFile);
     }
 
     /**
@@ -200,7 +359,6 @@ public class FileReport implements Comparable<FileReport> {
      * @see Object#hashCode()
      */
     public int hashCode() {
-        assert false : "hashCode not designed";
-        return 1; // any arbitrary constant will do
+        return sourceFile.hashCode();
     }
 }
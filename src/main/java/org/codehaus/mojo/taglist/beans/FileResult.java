@@ -0,0 +1,198 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Immutable result for one file and one tag class, with its comments sorted by line number.
+ *
+ * @see TagListResult
+ */
+public final class FileResult {
+
+    /**
+     * The metadata of the file, or null if the result was restored from a snapshot.
+     */
+    private final SourceFileInfo sourceFile;
+
+    /**
+     * The complete name of the class.
+     */
+    private final String className;
+
+    /**
+     * True if the file is an entry of a source archive, which has no xref page.
+     */
+    private final boolean archiveEntry;
+
+    /**
+     * The line numbers of the comments, in ascending order.
+     */
+    private final int[] lineIndexes;
+
+    /**
+     * The ids of the comments in the comment pool, at the same position as their line number.
+     */
+    private final int[] commentIds;
+
+    /**
+     * The number of occurrences in the file, including the ones without kept comment.
+     */
+    private final int tagCount;
+
+    /**
+     * The pool holding the comment texts.
+     */
+    private final CommentPool commentPool;
+
+    /**
+     * The comments of the file that have not been read yet, or null.
+     */
+    private final DeferredComments deferredComments;
+
+    /**
+     * Constructor.
+     *
+     * @param fileReport the file report to copy.
+     * @param className the class name of the file.
+     */
+    FileResult(FileReport fileReport, String className) {
+        this.sourceFile = fileReport.getSourceFile();
+        this.className = className;
+        this.archiveEntry = sourceFile.getArchive() != null;
+        this.lineIndexes = fileReport.copyLineIndexes();
+        this.commentIds = fileReport.copyCommentIds();
+        this.tagCount = fileReport.getTagCount();
+        this.commentPool = fileReport.getCommentPool();
+        this.deferredComments = fileReport.getDeferredComments();
+    }
+
+    /**
+     * Constructor for a result restored from a snapshot, whose comments are in a comment pool.
+     *
+     * @param className the class name of the file.
+     * @param archiveEntry true if the file is an entry of a source archive.
+     * @param lineIndexes the line numbers of the comments, in ascending order.
+     * @param commentIds the ids of the comments in the comment pool.
+     * @param tagCount the number of occurrences in the file.
+     * @param commentPool the pool holding the comment texts.
+     */
+    FileResult(
+            String className,
+            boolean archiveEntry,
+            int[] lineIndexes,
+            int[] commentIds,
+            int tagCount,
+            CommentPool commentPool) {
+        this.sourceFile = null;
+        this.className = className;
+        this.archiveEntry = archiveEntry;
+        this.lineIndexes = lineIndexes;
+        this.commentIds = commentIds;
+        this.tagCount = tagCount;
+        this.commentPool = commentPool;
+        this.deferredComments = null;
+    }
+
+    /**
+     * Returns the metadata of the file.
+     *
+     * @return the source file metadata, or null if the result was restored from a snapshot.
+     */
+    public SourceFileInfo getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * Returns the complete name of the class, for instance: org.codehaus.mojo.taglist.beans.FileReport.
+     *
+     * @return the full class name.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Returns the path corresponding to the class, for instance: org/codehaus/mojo/taglist/beans/FileReport.
+     *
+     * @return the file path.
+     */
+    public String getClassNameWithSlash() {
+        return className.replace('.', '/');
+    }
+
+    /**
+     * Returns the path of the xref page of the class, relative to the xref directory.
+     *
+     * @return the xref page path, or null for an archive entry, which has no xref page.
+     */
+    public String getXrefPath() {
+        if (sourceFile != null) {
+            return sourceFile.getXrefPath();
+        }
+        return archiveEntry ? null : getClassNameWithSlash() + ".html";
+    }
+
+    /**
+     * Tells whether the file is an entry of a source archive.
+     *
+     * @return true for an archive entry, false for a file on disk.
+     */
+    public boolean isArchiveEntry() {
+        return archiveEntry;
+    }
+
+    /**
+     * Returns the number of comments found in this file.
+     *
+     * @return the number of comments.
+     */
+    public int getCommentCount() {
+        return lineIndexes.length;
+    }
+
+    /**
+     * Returns the number of occurrences of the tag in this file, including the ones without kept comment.
+     *
+     * @return the number of occurrences.
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * Returns the line index of a comment.
+     *
+     * @param position the position of the comment, from 0 to {@link #getCommentCount()} - 1.
+     * @return the line index.
+     */
+    public int getLineIndexAt(int position) {
+        return lineIndexes[position];
+    }
+
+    /**
+     * Returns the comment at a position. Deferred comments are read from the file on first access.
+     *
+     * @param position the position of the comment, from 0 to {@link #getCommentCount()} - 1.
+     * @return the comment.
+     */
+    public String getCommentAt(int position) {
+        return FileReport.getComment(commentPool, deferredComments, commentIds[position]);
+    }
+}
@@ -0,0 +1,240 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the result of an analysis, written next to the XML report so that a later build whose inputs did not
+ * change can render the report again without scanning any file.
+ * <p>
+ * The snapshot holds the fingerprint of the inputs it was computed from; it is only read back for the same
+ * fingerprint. Restored comments are added to a comment pool, so that a large result may still spill to disk.
+ */
+public final class ResultSnapshot {
+
+    /**
+     * The first bytes of a snapshot file.
+     */
+    private static final int MAGIC = 0x54474c52;
+
+    /**
+     * The version of the snapshot format, to change whenever the format changes.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * Utility class.
+     */
+    private ResultSnapshot() {
+        // static methods only
+    }
+
+    /**
+     * Writes a result to a snapshot file. The file is replaced at once, so that a failed build does not leave a
+     * truncated snapshot behind.
+     *
+     * @param result the result of the analysis.
+     * @param fingerprint the fingerprint of the inputs of the analysis.
+     * @param file the snapshot file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(TagListResult result, String fingerprint, File file) throws IOException {
+        Path path = file.toPath().toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, fingerprint);
+            out.writeInt(result.getTagResults().size());
+            for (TagResult tagResult : result.getTagResults()) {
+                writeTagResult(out, tagResult);
+            }
+            out.writeInt(result.getSkippedFiles().size());
+            for (SkippedFile skippedFile : result.getSkippedFiles()) {
+                writeString(out, skippedFile.getPath());
+                writeString(out, skippedFile.getReason().name());
+            }
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the result of a previous analysis from a snapshot file.
+     *
+     * @param file the snapshot file.
+     * @param fingerprint the fingerprint of the inputs of this analysis.
+     * @param commentPool the pool to add the restored comments to.
+     * @return the result, or null if the file does not exist or was written for other inputs.
+     * @throws IOException if the file cannot be read or is damaged.
+     */
+    public static TagListResult read(File file, String fingerprint, CommentPool commentPool) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !fingerprint.equals(readString(in))) {
+                return null;
+            }
+            int tagCount = in.readInt();
+            List<TagResult> tagResults = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                tagResults.add(readTagResult(in, commentPool));
+            }
+            int skippedCount = in.readInt();
+            List<SkippedFile> skippedFiles = new ArrayList<>(skippedCount);
+            for (int i = 0; i < skippedCount; i++) {
+                String path = readString(in);
+                skippedFiles.add(new SkippedFile(path, SkippedFile.Reason.valueOf(readString(in))));
+            }
+            return new TagListResult(tagResults, skippedFiles);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Damaged snapshot " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the result of one tag class.
+     *
+     * @param out the output.
+     * @param tagResult the tag result.
+     * @throws IOException the IO exception.
+     */
+    private static void writeTagResult(DataOutputStream out, TagResult tagResult) throws IOException {
+        writeString(out, tagResult.getTagName());
+        writeString(out, tagResult.getHTMLSafeLinkName());
+        out.writeInt(tagResult.getTagStrings().size());
+        for (String tagString : tagResult.getTagStrings()) {
+            writeString(out, tagString);
+        }
+        out.writeInt(tagResult.getTagCount());
+        out.writeInt(tagResult.getDetailCount());
+        out.writeInt(tagResult.getPackageCounts().size());
+        for (Map.Entry<String, Integer> entry : tagResult.getPackageCounts().entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeInt(tagResult.getFileResults().size());
+        for (FileResult fileResult : tagResult.getFileResults()) {
+            writeString(out, fileResult.getClassName());
+            out.writeBoolean(fileResult.isArchiveEntry());
+            out.writeInt(fileResult.getTagCount());
+            out.writeInt(fileResult.getCommentCount());
+            for (int i = 0; i < fileResult.getCommentCount(); i++) {
+                out.writeInt(fileResult.getLineIndexAt(i));
+                writeString(out, fileResult.getCommentAt(i));
+            }
+        }
+    }
+
+    /**
+     * Reads the result of one tag class written by {@link #writeTagResult(DataOutputStream, TagResult)}.
+     *
+     * @param in the input.
+     * @param commentPool the pool to add the restored comments to.
+     * @return the tag result.
+     * @throws IOException the IO exception.
+     */
+    private static TagResult readTagResult(DataInputStream in, CommentPool commentPool) throws IOException {
+        String tagName = readString(in);
+        String linkName = readString(in);
+        int tagStringCount = in.readInt();
+        List<String> tagStrings = new ArrayList<>(tagStringCount);
+        for (int i = 0; i < tagStringCount; i++) {
+            tagStrings.add(readString(in));
+        }
+        int tagCount = in.readInt();
+        int detailCount = in.readInt();
+        Map<String, Integer> packageCounts = new LinkedHashMap<>();
+        for (int count = in.readInt(); count > 0; count--) {
+            packageCounts.put(readString(in), in.readInt());
+        }
+        int fileCount = in.readInt();
+        List<FileResult> fileResults = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            String className = readString(in);
+            boolean archiveEntry = in.readBoolean();
+            int fileTagCount = in.readInt();
+            int commentCount = in.readInt();
+            int[] lineIndexes = new int[commentCount];
+            int[] commentIds = new int[commentCount];
+            for (int j = 0; j < commentCount; j++) {
+                lineIndexes[j] = in.readInt();
+                commentIds[j] = commentPool.add(readString(in));
+            }
+            fileResults.add(
+                    new FileResult(className, archiveEntry, lineIndexes, commentIds, fileTagCount, commentPool));
+        }
+        return new TagResult(tagName, linkName, tagStrings, tagCount, detailCount, packageCounts, fileResults);
+    }
+
+    /**
+     * Writes a string that may be null or longer than {@link DataOutputStream#writeUTF(String)} allows.
+     *
+     * @param out the output.
+     * @param value the string, or null.
+     * @throws IOException the IO exception.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the input.
+     * @return the string, or null.
+     * @throws IOException the IO exception.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * A source file that was not scanned because it is over the scan limits, listed in the report summary.
+ */
+public final class SkippedFile {
+
+    /**
+     * Why a file was skipped.
+     */
+    public enum Reason {
+        /**
+         * The file is larger than the maximum file size.
+         */
+        FILE_SIZE("fileSize"),
+
+        /**
+         * The file has a line longer than the maximum line length, like minified files.
+         */
+        LINE_LENGTH("lineLength");
+
+        /**
+         * The suffix of the resource bundle key describing the reason.
+         */
+        private final String key;
+
+        Reason(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Returns the suffix of the resource bundle key describing the reason.
+         *
+         * @return the key suffix.
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * The path of the file, relative to its source directory.
+     */
+    private final String path;
+
+    /**
+     * Why the file was skipped.
+     */
+    private final Reason reason;
+
+    /**
+     * Constructor.
+     *
+     * @param path the path of the file, relative to its source directory.
+     * @param reason why the file was skipped.
+     */
+    public SkippedFile(String path, Reason reason) {
+        this.path = path;
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the path of the file, relative to its source directory.
+     *
+     * @return the path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns why the file was skipped.
+     *
+     * @return the reason.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,480 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Metadata of a scanned source file.
+ * <p>
+ * One instance is created for each scanned file and shared by the file reports of all tag classes that have an
+ * occurrence in the file, so the class name is computed only once per file. The path is kept as a node of a
+ * {@link DirectoryTrie} plus the file name, and the file, class name and xref path are rebuilt when needed.
+ * <p>
+ * A file can also be an entry of a source archive, read from the archive without extracting it. Its directories are
+ * then kept under the node of the archive, and its names are qualified by the archive name, like
+ * <code>foo-sources.jar!/org/foo/Bar.java</code>.
+ */
+public class SourceFileInfo {
+
+    /**
+     * The package identification string.
+     */
+    private static final String PACKAGE_STR = "package";
+
+    /**
+     * The trie holding the directory of the file, also used to intern package names.
+     */
+    private final DirectoryTrie trie;
+
+    /**
+     * The directory of the file being analyzed.
+     */
+    private final DirectoryTrie.Node directory;
+
+    /**
+     * The name of the file being analyzed.
+     */
+    private final String fileName;
+
+    /**
+     * The character encoding of the source file
+     */
+    private volatile String encoding;
+
+    /**
+     * The source directory the file was found in, or null if unknown.
+     */
+    private final DirectoryTrie.Node sourceRoot;
+
+    /**
+     * The archive the file is an entry of, or null for a file on disk.
+     */
+    private final DirectoryTrie.Node archive;
+
+    /**
+     * The package of the class corresponding to this file, once known.
+     */
+    private volatile String packageName;
+
+    /**
+     * Whether the package of the class is known.
+     */
+    private volatile boolean packageKnown;
+
+    /**
+     * Constructor for a file that does not share its directories with other files.
+     *
+     * @param file the scanned file.
+     * @param encoding the character encoding of the file.
+     * @param sourceRoot the source directory the file was found in, or null if unknown.
+     */
+    public SourceFileInfo(File file, String encoding, File sourceRoot) {
+        this(new DirectoryTrie(), file, encoding, sourceRoot);
+    }
+
+    /**
+     * Constructor for a file that does not share its directories with other files.
+     *
+     * @param file the scanned file, on any file system.
+     * @param encoding the character encoding of the file.
+     * @param sourceRoot the source directory the file was found in, or null if unknown.
+     */
+    public SourceFileInfo(Path file, String encoding, Path sourceRoot) {
+        this(new DirectoryTrie(), file, encoding, sourceRoot);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param trie the trie to store the directories of the file in.
+     * @param file the scanned file.
+     * @param encoding the character encoding of the file.
+     * @param sourceRoot the source directory the file was found in, or null if unknown.
+     */
+    public SourceFileInfo(DirectoryTrie trie, File file, String encoding, File sourceRoot) {
+        this(trie, file.toPath(), encoding, sourceRoot == null ? null : sourceRoot.toPath());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param trie the trie to store the directories of the file in.
+     * @param file the scanned file, on any file system.
+     * @param encoding the character encoding of the file.
+     * @param sourceRoot the source directory the file was found in, or null if unknown.
+     */
+    public SourceFileInfo(DirectoryTrie trie, Path file, String encoding, Path sourceRoot) {
+        Path absoluteFile = file.toAbsolutePath().normalize();
+        this.trie = trie;
+        this.directory = trie.getDirectory(absoluteFile.getParent());
+        this.fileName = trie.intern(absoluteFile.getFileName().toString());
+        this.encoding = encoding;
+        this.sourceRoot = sourceRoot == null ? null : trie.getDirectory(sourceRoot);
+        this.archive = null;
+    }
+
+    /**
+     * Constructor for an entry of a source archive.
+     *
+     * @param trie the trie to store the directories of the entry in.
+     * @param archive the archive file.
+     * @param entryName the name of the entry in the archive, with '/' separators.
+     * @param encoding the character encoding of the entry.
+     */
+    private SourceFileInfo(DirectoryTrie trie, DirectoryTrie.Node archive, String entryName, String encoding) {
+        Path entryPath = archive.toPath().resolve(entryName);
+        this.trie = trie;
+        this.directory = trie.getDirectory(entryPath.getParent());
+        this.fileName = trie.intern(entryPath.getFileName().toString());
+        this.encoding = encoding;
+        this.sourceRoot = archive;
+        this.archive = archive;
+    }
+
+    /**
+     * Creates the metadata of an entry of a source archive.
+     *
+     * @param trie the trie to store the directories of the entry in.
+     * @param archive the archive file.
+     * @param entryName the name of the entry in the archive, with '/' separators.
+     * @param encoding the character encoding of the entry.
+     * @return the entry metadata.
+     */
+    public static SourceFileInfo forArchiveEntry(DirectoryTrie trie, File archive, String entryName, String encoding) {
+        return new SourceFileInfo(trie, trie.getDirectory(archive.toPath()), entryName, encoding);
+    }
+
+    /**
+     * Returns the scanned file, rebuilt from the directory trie. For an archive entry, this is the path of the entry
+     * under the archive path, which does not exist on disk.
+     *
+     * @return the file.
+     * @throws UnsupportedOperationException if the file is not on the default file system.
+     */
+    public File getFile() {
+        return getPath().toFile();
+    }
+
+    /**
+     * Returns the scanned file as a path of its file system, rebuilt from the directory trie.
+     *
+     * @return the path.
+     */
+    public Path getPath() {
+        return directory.toPath().resolve(fileName);
+    }
+
+    /**
+     * Returns the directory of the scanned file.
+     *
+     * @return the directory node.
+     */
+    public DirectoryTrie.Node getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the name of the scanned file.
+     *
+     * @return the file name.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the character encoding of the file.
+     *
+     * @return the encoding, or null for the platform encoding.
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Sets the character encoding of the file, when it was detected while scanning the file.
+     *
+     * @param encoding the detected encoding.
+     */
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Returns the normalized absolute path of the file, which identifies the file in the reports. For an archive
+     * entry, this is the archive path followed by <code>!/</code> and the entry name.
+     *
+     * @return the path key.
+     */
+    public String getPathKey() {
+        return archive == null ? getPath().toString() : archive.getPath() + "!/" + getEntryName();
+    }
+
+    /**
+     * Returns the archive the file is an entry of.
+     *
+     * @return the archive file, or null for a file on disk.
+     */
+    public File getArchive() {
+        return archive == null ? null : archive.toFile();
+    }
+
+    /**
+     * Returns the name of the entry in its archive.
+     *
+     * @return the entry name with '/' separators, or null for a file on disk.
+     */
+    public String getEntryName() {
+        return archive == null ? null : getPathUnder(archive);
+    }
+
+    /**
+     * Returns the source directory the file was found in.
+     *
+     * @return the source directory, or null if unknown.
+     */
+    public File getSourceRoot() {
+        return sourceRoot == null ? null : sourceRoot.toFile();
+    }
+
+    /**
+     * Returns the path of the file relative to its source directory, with '/' separators, for display.
+     *
+     * @return the relative path, or the absolute path if the source directory is unknown.
+     */
+    public String getRelativePath() {
+        if (archive != null) {
+            return archive.getName() + "!/" + getEntryName();
+        }
+        String path = getPathUnder(sourceRoot);
+        return path != null ? path : getPathKey();
+    }
+
+    /**
+     * Returns the path of the file under a directory, with '/' separators.
+     *
+     * @param root the directory.
+     * @return the relative path, or null if the file is not under the directory.
+     */
+    private String getPathUnder(DirectoryTrie.Node root) {
+        StringBuilder path = new StringBuilder(fileName);
+        for (DirectoryTrie.Node node = directory; node != null; node = node.getParent()) {
+            if (node.equals(root)) {
+                return path.toString();
+            }
+            path.insert(0, node.getName() + "/");
+        }
+        return null;
+    }
+
+    /**
+     * Opens the content of the file, from its archive for an archive entry.
+     *
+     * @return the stream of the file content.
+     * @throws IOException the IO exception.
+     */
+    public InputStream openInputStream() throws IOException {
+        if (archive == null) {
+            return Files.newInputStream(getPath());
+        }
+        ZipFile zipFile = new ZipFile(archive.toFile());
+        try {
+            ZipEntry entry = zipFile.getEntry(getEntryName());
+            if (entry == null) {
+                throw new FileNotFoundException(getPathKey());
+            }
+            return new FilterInputStream(zipFile.getInputStream(entry)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zipFile.close();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Access an input reader that uses the current file encoding.
+     *
+     * @throws IOException the IO exception.
+     * @return a reader with the current file encoding.
+     */
+    private Reader getReader() throws IOException {
+        InputStream in = openInputStream();
+        return (encoding == null) ? new InputStreamReader(in) : new InputStreamReader(in, encoding);
+    }
+
+    /**
+     * Returns the complete name of the analyzed class, for instance: org.codehaus.mojo.taglist.beans.FileReport. The
+     * name of an archive entry is qualified by the archive name, for instance: foo-sources.jar!/org.foo.Bar.
+     *
+     * @return the full class name.
+     */
+    public String getClassName() {
+        if (!packageKnown) {
+            // need to compute it (only once)
+            readPackageName();
+        }
+        String className = packageName + "." + fileName.replaceAll("\\.java$", "");
+        return archive == null ? className : archive.getName() + "!/" + className;
+    }
+
+    /**
+     * Reads the package declaration from the file.
+     */
+    private void readPackageName() {
+        String packageName = null;
+        try (BufferedReader reader = new BufferedReader(getReader())) {
+            String currentLine = reader.readLine();
+            while (currentLine != null) {
+                packageName = parsePackageDeclaration(currentLine);
+                if (packageName != null) {
+                    break;
+                }
+                currentLine = reader.readLine();
+            }
+        } catch (IOException e) {
+            packageName = "unknown";
+        }
+
+        setPackageName(packageName);
+    }
+
+    /**
+     * Sets the package of the class when it is already known, for instance because the scanner read the package
+     * declaration. The class name is then computed without reading the file again.
+     *
+     * @param packageName the package name, or null if the file has no package declaration.
+     */
+    public void setPackageName(String packageName) {
+        this.packageName = trie.intern(packageName);
+        this.packageKnown = true;
+    }
+
+    /**
+     * Returns the package of the class if it is already known.
+     *
+     * @return the package name, or null if it is not known yet or if the file has no package declaration.
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Tells whether the class name is already known.
+     *
+     * @return true if the class name does not need to be read from the file.
+     */
+    public boolean hasClassName() {
+        return packageKnown;
+    }
+
+    /**
+     * Extracts the package name from a package declaration line. Lines that are not a package declaration are
+     * rejected without allocating.
+     *
+     * @param line a line of the source file.
+     * @return the package name, or null if the line is not a package declaration.
+     */
+    public static String parsePackageDeclaration(CharSequence line) {
+        int start = 0;
+        while (start < line.length() && line.charAt(start) <= ' ') {
+            start++;
+        }
+        if (line.length() - start < PACKAGE_STR.length()) {
+            return null;
+        }
+        for (int i = 0; i < PACKAGE_STR.length(); i++) {
+            if (line.charAt(start + i) != PACKAGE_STR.charAt(i)) {
+                return null;
+            }
+        }
+        return line.subSequence(start + PACKAGE_STR.length(), line.length())
+                .toString()
+                .trim()
+                .replaceAll(";", "")
+                .trim();
+    }
+
+    /**
+     * Returns the path corresponding to the analyzed class, for instance:
+     * org/apache/maven/plugins/taglist/beans/FileReport.
+     *
+     * @return the file path.
+     */
+    public String getClassNameWithSlash() {
+        return getClassName().replace('.', '/');
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SourceFileInfo)) {
+            return false;
+        }
+        SourceFileInfo other = (SourceFileInfo) o;
+        return fileName.equals(other.fileName) && directory.equals(other.directory);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return 31 * directory.hashCode() + fileName.hashCode();
+    }
+
+    /**
+     * Returns the path of the cross reference page of the file, relative to the xref directory.
+     *
+     * @return the xref page path, for instance: org/apache/maven/plugins/taglist/beans/FileReport.html, or null for
+     *         an archive entry, which has no xref page.
+     */
+    public String getXrefPath() {
+        return archive == null ? getClassNameWithSlash() + ".html" : null;
+    }
+}
@@ -0,0 +1,244 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Comment texts stored in a file instead of the heap, used by the {@link CommentPool} once its heap budget is spent.
+ * <p>
+ * Texts are appended to the file in UTF-8 and read back through a buffered window of the file. Only their end offsets
+ * and a hash index to find identical texts stay on the heap. The file is not memory mapped, as a mapped file can not
+ * be deleted on Windows until the mapping is garbage collected.
+ */
+class SpilledComments implements Closeable {
+
+    /**
+     * Size of the buffer holding the texts not yet written to the file.
+     */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Size of the buffered window of the file the texts are read from.
+     */
+    private static final int WINDOW_SIZE = 64 * 1024;
+
+    /**
+     * The file holding the texts.
+     */
+    private final Path path;
+
+    /**
+     * The channel used to write and read the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The texts not written to the file yet.
+     */
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+    /**
+     * The end offsets of the texts in the file, indexed by spilled id.
+     */
+    private long[] ends = new long[1024];
+
+    /**
+     * The number of stored texts.
+     */
+    private int size;
+
+    /**
+     * The number of bytes written to the channel.
+     */
+    private long written;
+
+    /**
+     * The id of the first text with a given hash code.
+     */
+    private final Map<Integer, Integer> idsByHash = new HashMap<>();
+
+    /**
+     * The part of the file read last, ready to be read.
+     */
+    private final ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+
+    /**
+     * The offset of the read part in the file, or -1 before the first read.
+     */
+    private long windowStart = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory to create the file in, or null for the temporary directory.
+     * @throws IOException if the file can not be created.
+     */
+    SpilledComments(File directory) throws IOException {
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+            path = Files.createTempFile(directory.toPath(), "comments", ".spill");
+        } else {
+            path = Files.createTempFile("taglist-comments", ".spill");
+        }
+        path.toFile().deleteOnExit();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Looks for a stored text.
+     *
+     * @param comment the text to look for.
+     * @return the id of the text, or -1 if it is not stored.
+     */
+    int find(String comment) {
+        Integer id = idsByHash.get(comment.hashCode());
+        return (id != null && get(id).equals(comment)) ? id : -1;
+    }
+
+    /**
+     * Stores a text.
+     *
+     * @param comment the text to store.
+     * @return the id of the text.
+     */
+    int add(String comment) {
+        byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (bytes.length > writeBuffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > writeBuffer.capacity()) {
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                while (large.hasRemaining()) {
+                    written += channel.write(large, written);
+                }
+            } else {
+                writeBuffer.put(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the comment spill file " + path, e);
+        }
+
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        ends[size] = (size == 0 ? 0 : ends[size - 1]) + bytes.length;
+        // only the first text with a hash code can be found again, which is enough for the common duplicates
+        idsByHash.putIfAbsent(comment.hashCode(), size);
+        return size++;
+    }
+
+    /**
+     * Reads a stored text.
+     *
+     * @param id the id of the text.
+     * @return the text.
+     */
+    String get(int id) {
+        long start = (id == 0) ? 0 : ends[id - 1];
+        int length = (int) (ends[id] - start);
+        try {
+            if (ends[id] > written) {
+                flush();
+            }
+            if (length > window.capacity()) {
+                ByteBuffer text = ByteBuffer.allocate(length);
+                read(text, start);
+                return StandardCharsets.UTF_8.decode(text).toString();
+            }
+            if (windowStart < 0 || start < windowStart || ends[id] > windowStart + window.limit()) {
+                window.clear();
+                window.limit((int) Math.min(window.capacity(), written - start));
+                read(window, start);
+                windowStart = start;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the comment spill file " + path, e);
+        }
+        ByteBuffer text = window.duplicate();
+        text.position((int) (start - windowStart));
+        text.limit(text.position() + length);
+        return StandardCharsets.UTF_8.decode(text).toString();
+    }
+
+    /**
+     * Fills a buffer from the file, then makes it ready to be read.
+     *
+     * @param buffer the buffer to fill up to its limit.
+     * @param position the offset in the file to read from.
+     * @throws IOException the IO exception.
+     */
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of the comment spill file " + path);
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Returns the number of stored texts.
+     *
+     * @return the number of texts.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Writes the buffered texts to the file.
+     *
+     * @throws IOException the IO exception.
+     */
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            written += channel.write(writeBuffer, written);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Closes and deletes the file.
+     *
+     * @throws IOException the IO exception.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,119 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable and sorted result of an analysis, shared by the HTML renderer and the XML export.
+ * <p>
+ * The result is built once from the tag reports after the scan. Tags are sorted by name and the files of each tag by
+ * class name, and all counts and class names are computed at that time, so that writing the outputs does not sort
+ * again or read any source file.
+ */
+public final class TagListResult {
+
+    /**
+     * The tag results, sorted by tag name.
+     */
+    private final List<TagResult> tagResults;
+
+    /**
+     * The files that were not scanned because they are over the scan limits.
+     */
+    private final List<SkippedFile> skippedFiles;
+
+    /**
+     * Constructor.
+     *
+     * @param tagResults the sorted tag results.
+     * @param skippedFiles the files that were not scanned.
+     */
+    TagListResult(List<TagResult> tagResults, List<SkippedFile> skippedFiles) {
+        this.tagResults = Collections.unmodifiableList(tagResults);
+        this.skippedFiles = Collections.unmodifiableList(skippedFiles);
+    }
+
+    /**
+     * Builds the result from the tag reports of an analysis.
+     *
+     * @param tagReports the tag reports.
+     * @return the sorted result.
+     */
+    public static TagListResult freeze(Collection<TagReport> tagReports) {
+        return freeze(tagReports, Collections.emptyList());
+    }
+
+    /**
+     * Builds the result from the tag reports of an analysis and the files it skipped.
+     *
+     * @param tagReports the tag reports.
+     * @param skippedFiles the files that were not scanned because they are over the scan limits.
+     * @return the sorted result.
+     */
+    public static TagListResult freeze(Collection<TagReport> tagReports, List<SkippedFile> skippedFiles) {
+        // files with hits for several tags share one class name instance
+        Map<SourceFileInfo, String> classNames = new HashMap<>();
+        List<TagResult> tagResults = new ArrayList<>(tagReports.size());
+        for (TagReport tagReport : tagReports) {
+            tagResults.add(new TagResult(tagReport, classNames));
+        }
+        tagResults.sort(Comparator.comparing(TagResult::getTagName).thenComparing(TagResult::getHTMLSafeLinkName));
+        return new TagListResult(tagResults, new ArrayList<>(skippedFiles));
+    }
+
+    /**
+     * Returns the tag results, sorted by tag name.
+     *
+     * @return an unmodifiable list of tag results.
+     */
+    public List<TagResult> getTagResults() {
+        return tagResults;
+    }
+
+    /**
+     * Returns the files that were not scanned because they are over the scan limits, in scan order.
+     *
+     * @return an unmodifiable list of skipped files.
+     */
+    public List<SkippedFile> getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * Tells whether any tag was found.
+     *
+     * @return true if at least one tag has an occurrence.
+     */
+    public boolean hasOccurrences() {
+        for (TagResult tagResult : tagResults) {
+            if (tagResult.getTagCount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
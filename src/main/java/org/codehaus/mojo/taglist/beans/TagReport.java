@@ -20,11 +20,13 @@ package org.codehaus.mojo.taglist.beans;
  */
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Report of the scan for a specific tag.
@@ -49,15 +51,30 @@ public class TagReport implements Comparable<TagReport> {
     private final List<String> tagStrings = new ArrayList<>();
 
     /**
-     * Map containing File objects as keys, and FileReport object as values.
+     * Map containing the file metadata as keys, and FileReport object as values.
      */
-    private final Map<File, FileReport> fileReportsMap;
+    private final Map<SourceFileInfo, FileReport> fileReportsMap;
 
     /**
      * Number of tags found in the code.
      */
     private int tagCount;
 
+    /**
+     * The maximum number of occurrences to keep the comment of, or 0 for no limit.
+     */
+    private int maxDetails;
+
+    /**
+     * Number of occurrences whose comment was kept.
+     */
+    private int detailCount;
+
+    /**
+     * The comment pool used when no pool is given for a new file report.
+     */
+    private final CommentPool commentPool = new CommentPool();
+
     /**
      * Constructor.
      *
@@ -79,14 +96,41 @@ public class TagReport implements Comparable<TagReport> {
      * @return a FileReport object for this file.
      */
     public FileReport getFileReport(File file, String encoding) {
-        FileReport report = fileReportsMap.get(file);
-        if (report != null) {
-            return report;
-        } else {
-            FileReport newFileReport = new FileReport(file, encoding);
-            fileReportsMap.put(file, newFileReport);
-            return newFileReport;
-        }
+        return getFileReport(new SourceFileInfo(file, encoding, null));
+    }
+
+    /**
+     * Returns the FileReport object corresponding to this file. If it does not exist yet, it will be created.
+     *
+     * @param file the file being analyzed, on any file system.
+     * @param encoding the character encoding of the file
+     * @return a FileReport object for this file.
+     */
+    public FileReport getFileReport(Path file, String encoding) {
+        return getFileReport(new SourceFileInfo(file, encoding, null));
+    }
+
+    /**
+     * Returns the FileReport object corresponding to this file. If it does not exist yet, it will be created and
+     * share the given file metadata and comment pool.
+     *
+     * @param sourceFile the metadata of the file being analyzed.
+     * @param commentPool the comment pool of the analysis.
+     * @return a FileReport object for this file.
+     */
+    public FileReport getFileReport(SourceFileInfo sourceFile, CommentPool commentPool) {
+        return fileReportsMap.computeIfAbsent(sourceFile, file -> new FileReport(sourceFile, commentPool));
+    }
+
+    /**
+     * Returns the FileReport object corresponding to this file. If it does not exist yet, it will be created and
+     * share the given file metadata.
+     *
+     * @param sourceFile the metadata of the file being analyzed.
+     * @return a FileReport object for this file.
+     */
+    public FileReport getFileReport(SourceFileInfo sourceFile) {
+        return getFileReport(sourceFile, commentPool);
     }
 
     /**
@@ -128,19 +172,56 @@ public class TagReport implements Comparable<TagReport> {
         // tagCount was not computed yet
         tagCount = 0;
         for (FileReport fileReport : fileReportsMap.values()) {
-            tagCount += fileReport.getLineIndexes().size();
+            tagCount += fileReport.getTagCount();
         }
         return tagCount;
     }
 
+    /**
+     * Sets the maximum number of occurrences to keep the comment of. Further occurrences are only counted.
+     *
+     * @param maxDetails the maximum number of detailed occurrences, or 0 for no limit.
+     */
+    public void setMaxDetails(int maxDetails) {
+        this.maxDetails = maxDetails;
+    }
+
+    /**
+     * Returns the maximum number of occurrences to keep the comment of.
+     *
+     * @return the maximum number of detailed occurrences, or 0 for no limit.
+     */
+    public int getMaxDetails() {
+        return maxDetails;
+    }
+
+    /**
+     * Tells whether the comment of a new occurrence should be kept, and counts it if so.
+     *
+     * @return true if the comment should be kept, false if the occurrence should only be counted.
+     */
+    public boolean keepDetail() {
+        if (maxDetails > 0 && detailCount >= maxDetails) {
+            return false;
+        }
+        detailCount++;
+        return true;
+    }
+
     /**
      * {@inheritDoc}
+     * <p>
+     * Tag reports are sorted by tag name, then by link name, which is unique for each tag class.
      *
      * @see Comparable#compareTo(Object)
      */
     public int compareTo(TagReport o) {
         if (o != null) {
-            return this.getTagName().compareTo(o.getTagName());
+            int result = this.getTagName().compareTo(o.getTagName());
+            if (result == 0) {
+                result = String.valueOf(linkName).compareTo(String.valueOf(o.linkName));
+            }
+            return result;
         } else {
             return 0;
         }
@@ -183,12 +264,12 @@ public class TagReport implements Comparable<TagReport> {
      * @see Object#equals(Object)
      */
     public boolean equals(Object r) {
-        // In Java 5 the PriorityQueue.remove method uses the
-        // compareTo method, while in Java 6 it uses the equals method.
+        if (this == r) {
+            return true;
+        }
         if (!(r instanceof TagReport)) {
             return false;
         }
-
         return (this.compareTo((TagReport) r) == 0);
     }
 
@@ -198,7 +279,6 @@ public class TagReport implements Comparable<TagReport> {
      * @see Object#hashCode()
      */
     public int hashCode() {
-        assert false : "hashCode not designed";
-        return 1; // any arbitrary constant will do
+        return Objects.hashCode(linkName);
     }
 }
@@ -0,0 +1,226 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable result for one tag class, with its files sorted by class name.
+ *
+ * @see TagListResult
+ */
+public final class TagResult {
+
+    /**
+     * Number of files from which the files of a tag are sorted in parallel.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 8192;
+
+    /**
+     * Orders files by class name, then by path. Both keys are precomputed.
+     */
+    private static final Comparator<FileResult> FILE_ORDER = Comparator.comparing(FileResult::getClassName)
+            .thenComparing(file -> file.getSourceFile().getPathKey());
+
+    /**
+     * The name of the tag class.
+     */
+    private final String tagName;
+
+    /**
+     * HTML safe link name of the tag class.
+     */
+    private final String linkName;
+
+    /**
+     * The tag strings that make the tag class.
+     */
+    private final List<String> tagStrings;
+
+    /**
+     * Number of tags found in the code.
+     */
+    private final int tagCount;
+
+    /**
+     * Number of tags found in the code whose comment was kept.
+     */
+    private final int detailCount;
+
+    /**
+     * Number of tags by package, only when the details were capped.
+     */
+    private final Map<String, Integer> packageCounts;
+
+    /**
+     * The file results, sorted by class name.
+     */
+    private final List<FileResult> fileResults;
+
+    /**
+     * Constructor.
+     *
+     * @param tagReport the tag report to copy.
+     * @param classNames the class names computed so far, by file.
+     */
+    TagResult(TagReport tagReport, Map<SourceFileInfo, String> classNames) {
+        this.tagName = tagReport.getTagName();
+        this.linkName = tagReport.getHTMLSafeLinkName();
+        String[] strings = tagReport.getTagStrings();
+        this.tagStrings =
+                strings == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(strings));
+
+        FileResult[] files = new FileResult[tagReport.getFileReports().size()];
+        int count = 0;
+        int details = 0;
+        int i = 0;
+        for (FileReport fileReport : tagReport.getFileReports()) {
+            String className = classNames.computeIfAbsent(fileReport.getSourceFile(), SourceFileInfo::getClassName);
+            files[i] = new FileResult(fileReport, className);
+            count += files[i].getTagCount();
+            details += files[i].getCommentCount();
+            i++;
+        }
+        if (files.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(files, FILE_ORDER);
+        } else {
+            Arrays.sort(files, FILE_ORDER);
+        }
+        this.fileResults = Collections.unmodifiableList(Arrays.asList(files));
+        this.tagCount = count;
+        this.detailCount = details;
+
+        Map<String, Integer> packages = new TreeMap<>();
+        if (details < count) {
+            for (FileResult file : files) {
+                String className = file.getClassName();
+                int lastDot = className.lastIndexOf('.');
+                packages.merge(lastDot < 0 ? "" : className.substring(0, lastDot), file.getTagCount(), Integer::sum);
+            }
+        }
+        this.packageCounts = Collections.unmodifiableMap(packages);
+    }
+
+    /**
+     * Constructor for a result restored from a snapshot.
+     *
+     * @param tagName the name of the tag class.
+     * @param linkName the HTML safe link name of the tag class.
+     * @param tagStrings the tag strings that make the tag class.
+     * @param tagCount the number of tags found in the code.
+     * @param detailCount the number of tags whose comment was kept.
+     * @param packageCounts the number of tags by package, only when the details were capped.
+     * @param fileResults the file results, sorted by class name.
+     */
+    TagResult(
+            String tagName,
+            String linkName,
+            List<String> tagStrings,
+            int tagCount,
+            int detailCount,
+            Map<String, Integer> packageCounts,
+            List<FileResult> fileResults) {
+        this.tagName = tagName;
+        this.linkName = linkName;
+        this.tagStrings = Collections.unmodifiableList(tagStrings);
+        this.tagCount = tagCount;
+        this.detailCount = detailCount;
+        this.packageCounts = Collections.unmodifiableMap(packageCounts);
+        this.fileResults = Collections.unmodifiableList(fileResults);
+    }
+
+    /**
+     * Returns the name of the tag class that was looked for.
+     *
+     * @return the name of the tag class.
+     */
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * Returns a HTML safe link name for this tag result.
+     *
+     * @return a HTML safe link name.
+     */
+    public String getHTMLSafeLinkName() {
+        return linkName;
+    }
+
+    /**
+     * Returns the tag strings used by this tag class.
+     *
+     * @return an unmodifiable list of tag strings, empty if the tag class has no tags.
+     */
+    public List<String> getTagStrings() {
+        return tagStrings;
+    }
+
+    /**
+     * Gives the number of comments found for that tag.
+     *
+     * @return the number of comments.
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * Gives the number of comments that were kept for that tag.
+     *
+     * @return the number of detailed comments, at most {@link #getTagCount()}.
+     */
+    public int getDetailCount() {
+        return detailCount;
+    }
+
+    /**
+     * Tells whether only part of the comments were kept because of the maximum number of details of the tag class.
+     *
+     * @return true if some occurrences have no comment.
+     */
+    public boolean isDetailsCapped() {
+        return detailCount < tagCount;
+    }
+
+    /**
+     * Returns the number of occurrences by package, sorted by package name. Only computed when the details were
+     * capped, since the file details give them otherwise.
+     *
+     * @return an unmodifiable map of package names to occurrences, empty if the details were not capped.
+     */
+    public Map<String, Integer> getPackageCounts() {
+        return packageCounts;
+    }
+
+    /**
+     * Returns the files containing the tag, sorted by class name.
+     *
+     * @return an unmodifiable list of file results.
+     */
+    public List<FileResult> getFileResults() {
+        return fileResults;
+    }
+}
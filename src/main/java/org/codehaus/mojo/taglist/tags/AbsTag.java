@@ -56,6 +56,21 @@ public abstract class AbsTag {
      */
     public abstract int contains(final String currentLine, final Locale locale);
 
+    /** Check to see if a sequence of characters contains this tag.
+     * <p>
+     *  The default implementation copies the characters into a string.
+     *  Tags override it to search the characters in place, so that scanning
+     *  a line without tag does not allocate.
+     *
+     *  @param currentLine the characters of the current line being scanned.
+     *  @param locale the Locale of the currentLine.
+     *  @return the index within the string of the matched tag, or TagClass.NO_MATCH
+     *  if not match was found.
+     */
+    public int contains(final CharSequence currentLine, final Locale locale) {
+        return contains(currentLine == null ? null : currentLine.toString(), locale);
+    }
+
     /** Check to see if the string starts with this tag.
      *  If there is a match, return true.
      *
@@ -78,6 +93,42 @@ public abstract class AbsTag {
      */
     public abstract int getLastTagMatchLength();
 
+    /** Find the first occurrence of a string within a sequence of characters.
+     *
+     * @param text the characters to search in.
+     * @param target the string to search for.
+     * @return the index of the first occurrence, or NO_MATCH.
+     */
+    protected static int indexOf(final CharSequence text, final String target) {
+        int last = text.length() - target.length();
+        if (target.isEmpty()) {
+            return 0;
+        }
+        char first = target.charAt(0);
+        for (int i = 0; i <= last; i++) {
+            if (text.charAt(i) == first && regionMatches(text, i, target)) {
+                return i;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /** Check whether a string is found at a position within a sequence of characters.
+     *
+     * @param text the characters to search in.
+     * @param offset the position in the characters.
+     * @param target the string to compare.
+     * @return true if the characters at the position are the string.
+     */
+    private static boolean regionMatches(final CharSequence text, final int offset, final String target) {
+        for (int j = 1; j < target.length(); j++) {
+            if (text.charAt(offset + j) != target.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /** Constructor.
      *
      * @param tag the tag string to be used for this tag.
@@ -85,4 +136,12 @@ public abstract class AbsTag {
     protected AbsTag(final String tag) {
         tagString = tag;
     }
+
+    /** Get the tag string of this tag.
+     *
+     * @return the tag string, whose meaning depends on the type of tag.
+     */
+    public String getTagString() {
+        return tagString;
+    }
 }
@@ -68,6 +68,24 @@ public class GenericTag extends AbsTag {
         return (result);
     }
 
+    /** Check to see if the characters contain this tag, without copying them.
+     *
+     *  @param currentLine the characters of the current line being scanned.
+     *  @param locale the Locale of the currentLine.
+     *  @return the index within the string of the matched tag, or TagClass.NO_MATCH
+     *  if not match was found.
+     */
+    @Override
+    public int contains(final CharSequence currentLine, final Locale locale) {
+        int result = AbsTag.NO_MATCH;
+
+        if (currentLine != null) {
+            result = indexOf(currentLine, tagString);
+        }
+
+        return (result);
+    }
+
     /** Check to see if the string starts with this tag.
      *
      *  @param currentLine the string for the current line being scanned.
@@ -51,6 +51,11 @@ import java.util.Locale;
  *
  */
 public class IgnoreCaseTag extends AbsTag {
+    /**
+     * The tag string in lower case for the last locale used, shared by the scanning threads.
+     */
+    private volatile LowerCaseTag lowerCaseTag;
+
     /** Check to see if the string contains this tag.
      *  If there is a match, return the index within the string; otherwise,
      *  return NO_MATCH.
@@ -72,6 +77,59 @@ public class IgnoreCaseTag extends AbsTag {
         return (result);
     }
 
+    /** Check to see if the characters contain this tag.
+     * <p>
+     *  Lines of ASCII characters are compared character by character, with
+     *  the same lower case conversion as {@link String#toLowerCase(Locale)},
+     *  so that they are not copied. Other lines are converted to lower case.
+     *
+     *  @param currentLine the characters of the current line being scanned.
+     *  @param locale the Locale of the currentLine.
+     *  @return the index within the string of the matched tag, or TagClass.NO_MATCH
+     *  if not match was found.
+     */
+    @Override
+    public int contains(final CharSequence currentLine, final Locale locale) {
+        if (currentLine == null) {
+            return AbsTag.NO_MATCH;
+        }
+
+        int length = currentLine.length();
+        for (int i = 0; i < length; i++) {
+            if (currentLine.charAt(i) > 0x7F) {
+                return contains(currentLine.toString(), locale);
+            }
+        }
+
+        LowerCaseTag lower = getLowerCaseTag(locale);
+        String target = lower.tag;
+        int last = length - target.length();
+        for (int i = 0; i <= last; i++) {
+            int j = 0;
+            while (j < target.length() && lower.toLowerCase(currentLine.charAt(i + j)) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return i;
+            }
+        }
+        return AbsTag.NO_MATCH;
+    }
+
+    /** Get the tag string in lower case for a locale.
+     *
+     * @param locale the Locale of the scanned lines.
+     * @return the lower case tag.
+     */
+    private LowerCaseTag getLowerCaseTag(final Locale locale) {
+        LowerCaseTag lower = lowerCaseTag;
+        if (lower == null || !lower.locale.equals(locale)) {
+            lower = new LowerCaseTag(tagString, locale);
+            lowerCaseTag = lower;
+        }
+        return lower;
+    }
+
     /** Check to see if the string starts with this tag.
      *
      *  @param currentLine the string for the current line being scanned.
@@ -99,6 +157,41 @@ public class IgnoreCaseTag extends AbsTag {
         return (tagString.length());
     }
 
+    /** The tag string in lower case for a locale. */
+    private static final class LowerCaseTag {
+        /** The locale of the conversion. */
+        private final Locale locale;
+
+        /** The tag string in lower case. */
+        private final String tag;
+
+        /** True if the locale converts the ASCII "I" to the dotless "i". */
+        private final boolean dotlessI;
+
+        /** Constructor.
+         *
+         * @param tagString the tag string.
+         * @param locale the locale of the conversion.
+         */
+        LowerCaseTag(final String tagString, final Locale locale) {
+            this.locale = locale;
+            this.tag = tagString.toLowerCase(locale);
+            this.dotlessI = "I".toLowerCase(locale).charAt(0) != 'i';
+        }
+
+        /** Convert an ASCII character to lower case like {@link String#toLowerCase(Locale)} does.
+         *
+         * @param c an ASCII character.
+         * @return the character in lower case.
+         */
+        char toLowerCase(final char c) {
+            if (c < 'A' || c > 'Z') {
+                return c;
+            }
+            return (c == 'I' && dotlessI) ? '\u0131' : (char) (c + ('a' - 'A'));
+        }
+    }
+
     /** Constructor.
      *
      * @param tagString the string to match against for this tag.
@@ -19,7 +19,10 @@ package org.codehaus.mojo.taglist.tags;
  * under the License.
  */
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -51,13 +54,31 @@ import java.util.regex.Pattern;
  *
  */
 public class RegExTag extends AbsTag {
+    /** The maximum number of compiled patterns kept for the next builds. */
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    /**
+     * The compiled patterns by regular expression, the least recently used first. Patterns are immutable, so they are
+     * kept as long as the plugin is loaded, as with the Maven daemon, instead of being compiled again by each build.
+     */
+    private static final Map<String, Pattern> PATTERNS =
+            Collections.synchronizedMap(new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                    return size() > MAX_CACHED_PATTERNS;
+                }
+            });
+
     /**
      * The regular expression pattern to pre-compile.
      */
     private final Pattern pattern;
 
-    /** The length of the last regEx comment tag match */
-    private int lastMatchedCommentTagLength = 0;
+    /** The matcher of the pattern, reused by each scanning thread */
+    private final ThreadLocal<Matcher> matcher;
+
+    /** The length of the last regEx comment tag match, per scanning thread */
+    private final ThreadLocal<Integer> lastMatchedCommentTagLength = ThreadLocal.withInitial(() -> 0);
 
     /** Check to see if the string contains this tag.
      *  If there is a match, return the index within the string; otherwise,
@@ -69,17 +90,31 @@ public class RegExTag extends AbsTag {
      *  if not match was found.
      */
     public int contains(final String currentLine, final Locale locale) {
+        return contains((CharSequence) currentLine, locale);
+    }
+
+    /** Check to see if the characters contain this tag, reusing the matcher of the thread.
+     *
+     *  @param currentLine the characters of the current line being scanned.
+     *  @param locale the Locale of the currentLine.
+     *  @return the index within the string of the matched tag, or TagClass.NO_MATCH
+     *  if not match was found.
+     */
+    @Override
+    public int contains(final CharSequence currentLine, final Locale locale) {
         int result = AbsTag.NO_MATCH;
 
         if (currentLine != null) {
             // Get index match or -1 if no match
-            Matcher m = pattern.matcher(currentLine);
+            Matcher m = matcher.get().reset(currentLine);
             if (m.find()) {
                 result = m.start();
 
                 // Store the length of the comment tag.
-                lastMatchedCommentTagLength = m.end() - m.start();
+                lastMatchedCommentTagLength.set(m.end() - m.start());
             }
+            // do not keep the line, its buffer belongs to the scan of the file
+            m.reset("");
         }
 
         return (result);
@@ -95,11 +130,12 @@ public class RegExTag extends AbsTag {
         boolean result = false;
 
         if (currentLine != null) {
-            Matcher m = pattern.matcher(currentLine);
+            Matcher m = matcher.get().reset(currentLine);
             if (m.find()) {
                 // Was the match at the first character?
                 result = m.start() == 0;
             }
+            m.reset("");
         }
 
         return (result);
@@ -120,7 +156,7 @@ public class RegExTag extends AbsTag {
      * @return the length of the last matched tag.
      */
     public int getLastTagMatchLength() {
-        return (lastMatchedCommentTagLength);
+        return (lastMatchedCommentTagLength.get());
     }
 
     /** Constructor.
@@ -130,7 +166,8 @@ public class RegExTag extends AbsTag {
     public RegExTag(final String tagString) {
         super(tagString);
 
-        // Pre-compile the regular expression
-        pattern = Pattern.compile(tagString);
+        // Pre-compile the regular expression, or reuse the one compiled by a previous build
+        pattern = PATTERNS.computeIfAbsent(tagString, Pattern::compile);
+        matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
     }
 }
@@ -20,7 +20,9 @@ package org.codehaus.mojo.taglist.tags;
  */
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 
 import org.codehaus.mojo.taglist.beans.TagReport;
@@ -68,9 +70,9 @@ public class TagClass {
     public static final int NO_MATCH = AbsTag.NO_MATCH;
 
     /**
-     * The last tag to successfully match.
+     * The last tag to successfully match. Kept per thread, as large files are scanned in parallel chunks.
      */
-    private AbsTag lastSuccessfulTagMatch = null;
+    private final ThreadLocal<AbsTag> lastSuccessfulTagMatch = new ThreadLocal<>();
 
     /**
      * A unique ID counter for the tag classes.
@@ -117,24 +119,25 @@ public class TagClass {
      *  within the specified string.  If no match is found, this function will
      *  return TagClass.NO_MATCH for the index.
      *
-     *  @param currentLine the string for the current line being scanned.
+     *  @param currentLine the characters of the current line being scanned.
      *  @param locale the Locale of the currentLine.
      *  @return the index within the string of the matched tag, or TagClass.NO_MATCH
      *  if not match was found.
      */
-    public int tagMatchContains(final String currentLine, final Locale locale) {
+    public int tagMatchContains(final CharSequence currentLine, final Locale locale) {
         int index = NO_MATCH;
 
         // Reset the last tag match
-        lastSuccessfulTagMatch = null;
+        lastSuccessfulTagMatch.set(null);
 
-        for (AbsTag tag : tags) {
+        for (int i = 0; i < tags.size(); i++) {
+            AbsTag tag = tags.get(i);
             // Check if the string contain this tag
             index = tag.contains(currentLine, locale);
 
             if (index != NO_MATCH) {
                 // Store the last match
-                lastSuccessfulTagMatch = tag;
+                lastSuccessfulTagMatch.set(tag);
 
                 // Stop checking
                 break;
@@ -175,10 +178,11 @@ public class TagClass {
      * @return string of the last matched tag.
      */
     public String getLastTagMatchString() {
-        if (lastSuccessfulTagMatch == null) {
+        AbsTag lastMatch = lastSuccessfulTagMatch.get();
+        if (lastMatch == null) {
             return ("");
         } else {
-            return (lastSuccessfulTagMatch.tagString);
+            return (lastMatch.tagString);
         }
     }
 
@@ -194,10 +198,11 @@ public class TagClass {
      * @return the length of the last matched tag.
      */
     public int getLastTagMatchStringLength() {
-        if (lastSuccessfulTagMatch == null) {
+        AbsTag lastMatch = lastSuccessfulTagMatch.get();
+        if (lastMatch == null) {
             return (0);
         } else {
-            return (lastSuccessfulTagMatch.getLastTagMatchLength());
+            return (lastMatch.getLastTagMatchLength());
         }
     }
 
@@ -208,4 +213,12 @@ public class TagClass {
     public String getDisplayName() {
         return (classDisplayName);
     }
+
+    /** Get the tags of this tag class.
+     *
+     * @return the tags, in the order they are matched.
+     */
+    public List<AbsTag> getTags() {
+        return Collections.unmodifiableList(tags);
+    }
 }
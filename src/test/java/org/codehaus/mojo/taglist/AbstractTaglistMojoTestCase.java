@@ -10,6 +10,8 @@ import java.util.stream.Collectors;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.codehaus.mojo.taglist.tags.GenericTag;
+import org.codehaus.mojo.taglist.tags.TagClass;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.repository.LocalRepository;
@@ -63,6 +65,48 @@ public abstract class AbstractTaglistMojoTestCase extends AbstractMojoTestCase {
         return mojo;
     }
 
+    /**
+     * Runs a {@link TagListReport} configured by pluginXmlFile, with some of its parameters changed.
+     *
+     * @param pluginXmlFile file to configure Mojo with, must exist.
+     * @param parameters the names of the parameters to change, each followed by its value.
+     * @return the executed Mojo, never null.
+     * @throws Exception in case of non-existing pluginXmlFile, unknown parameter or failure of the Mojo.
+     */
+    protected TagListReport executeTagListReport(File pluginXmlFile, Object... parameters) throws Exception {
+        TagListReport mojo = getTagListReport(pluginXmlFile);
+        for (int i = 0; i < parameters.length; i += 2) {
+            setVariableValueToObject(mojo, (String) parameters[i], parameters[i + 1]);
+        }
+        mojo.execute();
+        return mojo;
+    }
+
+    /**
+     * Checks the generated taglist XML report against the expected one.
+     *
+     * @param message the message of the failure.
+     * @param expectedFile the expected XML report.
+     * @param mojo the executed Mojo.
+     * @throws IOException in case of generic I/O errors.
+     */
+    protected void assertGeneratedXMLOutput(String message, File expectedFile, TagListReport mojo) throws IOException {
+        assertEquals(message, readFileContentWithoutNewLine(expectedFile), getGeneratedXMLOutput(mojo));
+    }
+
+    /**
+     * Creates an analyser looking for one tag with the configuration of a report, to scan files without the report.
+     *
+     * @param mojo the report to take the configuration from.
+     * @param tag the tag to look for.
+     * @return the analyser.
+     */
+    protected static FileAnalyser newAnalyser(TagListReport mojo, String tag) {
+        TagClass tagClass = new TagClass(tag);
+        tagClass.addTag(new GenericTag(tag));
+        return new FileAnalyser(mojo, Collections.singletonList(tagClass));
+    }
+
     /**
      * Reads the generated taglist report into a String.
      *
@@ -0,0 +1,154 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the encoding detection.
+ */
+class EncodingSnifferTest {
+
+    private static final Charset FALLBACK = StandardCharsets.ISO_8859_1;
+
+    private static EncodingSniffer sniff(byte[] bytes) {
+        return EncodingSniffer.sniff(ByteBuffer.wrap(bytes), true, FALLBACK);
+    }
+
+    @Test
+    void testByteOrderMarks() {
+        EncodingSniffer utf8 = sniff(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'});
+        assertEquals(StandardCharsets.UTF_8, utf8.getCharset());
+        assertEquals(3, utf8.getSkip());
+
+        EncodingSniffer utf16 = sniff(new byte[] {(byte) 0xFF, (byte) 0xFE, 'a', 0});
+        assertEquals(StandardCharsets.UTF_16, utf16.getCharset());
+        assertEquals(0, utf16.getSkip());
+    }
+
+    @Test
+    void testContentDetection() {
+        // an ASCII file reads the same with the fallback encoding, an ASCII head is only tentatively UTF-8
+        byte[] ascii = "// TODO plain ASCII".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(FALLBACK, sniff(ascii).getCharset());
+        assertFalse(sniff(ascii).isTentative());
+        EncodingSniffer head = EncodingSniffer.sniff(ByteBuffer.wrap(ascii), false, FALLBACK);
+        assertEquals(StandardCharsets.UTF_8, head.getCharset());
+        assertTrue(head.isTentative());
+        assertEquals(StandardCharsets.UTF_8, sniff("// TODO café 😀".getBytes(StandardCharsets.UTF_8)).getCharset());
+        assertEquals(FALLBACK, sniff("// TODO café".getBytes(StandardCharsets.ISO_8859_1)).getCharset());
+        // a sequence cut at the end of the sniffed bytes is still UTF-8
+        byte[] cut = "// é€".getBytes(StandardCharsets.UTF_8);
+        byte[] cutHead = new byte[cut.length - 1];
+        System.arraycopy(cut, 0, cutHead, 0, cutHead.length);
+        EncodingSniffer utf8 = EncodingSniffer.sniff(ByteBuffer.wrap(cutHead), false, FALLBACK);
+        assertEquals(StandardCharsets.UTF_8, utf8.getCharset());
+        assertFalse(utf8.isTentative());
+        assertEquals(FALLBACK, sniff(cutHead).getCharset());
+    }
+
+    @Test
+    void testDetectedFileIsDecoded() throws IOException {
+        byte[] text = "// TODO café\n".getBytes(StandardCharsets.UTF_16LE);
+        byte[] bytes = new byte[text.length + 2];
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xFE;
+        System.arraycopy(text, 0, bytes, 2, text.length);
+
+        ScanBuffers buffers = new ScanBuffers();
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        try (LineCursor cursor = buffers.open(channel, FALLBACK, false, true, true)) {
+            assertEquals(StandardCharsets.UTF_16, buffers.getCharset());
+            cursor.nextLine();
+            assertEquals("// TODO café", cursor.toString());
+        }
+    }
+
+    @Test
+    void testUtf8AfterAsciiHeadIsDecoded() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (text.length() <= EncodingSniffer.SNIFF_SIZE) {
+            text.append("// Licensed under the Apache License, Version 2.0\n");
+        }
+        text.append("// TODO café");
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        ScanBuffers buffers = new ScanBuffers();
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        try (LineCursor cursor = buffers.open(channel, FALLBACK, false, true, true)) {
+            assertEquals(StandardCharsets.UTF_8, buffers.getCharset());
+            String last = null;
+            while (cursor.nextLine()) {
+                last = cursor.toString();
+            }
+            assertEquals("// TODO café", last);
+        }
+    }
+
+    @Test
+    void testLatin1AfterAsciiHeadFailsTheRead() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (text.length() <= EncodingSniffer.SNIFF_SIZE) {
+            text.append("// Licensed under the Apache License, Version 2.0\n");
+        }
+        text.append("// TODO café");
+        byte[] bytes = text.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+        ScanBuffers buffers = new ScanBuffers();
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        try (LineCursor cursor = buffers.open(channel, FALLBACK, false, true, true)) {
+            assertEquals(StandardCharsets.UTF_8, buffers.getCharset());
+            assertThrows(MalformedInputException.class, () -> {
+                while (cursor.nextLine()) {
+                    // the last line is not UTF-8
+                }
+            });
+        }
+    }
+
+    @Test
+    void testBinaryDetection() {
+        assertFalse(EncodingSniffer.isBinary(ByteBuffer.wrap("// TODO\tok\r\n\f".getBytes()), FALLBACK));
+        assertTrue(EncodingSniffer.isBinary(ByteBuffer.wrap(new byte[] {'a', 'b', 0, 'c'}), FALLBACK));
+        assertTrue(EncodingSniffer.isBinary(ByteBuffer.wrap(new byte[] {1, 2, 'a', 'b', 'c', 'd', 'e'}), FALLBACK));
+        // NUL bytes are text in UTF-16
+        byte[] utf16 = "// TODO".getBytes(StandardCharsets.UTF_16LE);
+        assertFalse(EncodingSniffer.isBinary(ByteBuffer.wrap(utf16), StandardCharsets.UTF_16LE));
+
+        ScanBuffers buffers = new ScanBuffers();
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(new byte[] {0, 1}));
+        assertThrows(BinaryFileException.class, () -> buffers.open(channel, FALLBACK, false, false, true));
+        assertTrue(buffers.isFree());
+    }
+}
@@ -0,0 +1,72 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the detection of generated source files.
+ */
+class GeneratedSourceDetectorTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String relativePath, String text) throws IOException {
+        Path file = directory.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void testDefaultMarkersAndPaths() throws IOException {
+        GeneratedSourceDetector detector = new GeneratedSourceDetector(null, null);
+        assertTrue(detector.isGenerated(write("src/Parser.java", "// DO NOT EDIT\nclass Parser {}\n")));
+        assertTrue(detector.isGenerated(write("target/generated-sources/antlr/Lexer.java", "class Lexer {}\n")));
+        assertFalse(detector.isGenerated(write("src/Hand.java", "// TODO write by hand\nclass Hand {}\n")));
+
+        // markers past the header are not looked for
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < GeneratedSourceDetector.HEADER_SIZE; i++) {
+            text.append(' ');
+        }
+        text.append("@Generated");
+        assertFalse(detector.isGenerated(write("src/Late.java", text.toString())));
+    }
+
+    @Test
+    void testConfiguredMarkersAndPaths() throws IOException {
+        GeneratedSourceDetector detector =
+                new GeneratedSourceDetector(new String[] {"Code generated"}, new String[] {"**/gen/**"});
+        assertTrue(detector.isGenerated(write("src/Api.java", "// Code generated by a tool\n")));
+        assertTrue(detector.isGenerated(write("gen/Model.java", "class Model {}\n")));
+        assertFalse(detector.isGenerated(write("src/Parser.java", "// DO NOT EDIT\n")));
+    }
+}
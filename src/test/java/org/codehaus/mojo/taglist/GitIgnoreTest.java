@@ -0,0 +1,85 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the git ignore rules.
+ */
+class GitIgnoreTest {
+
+    @TempDir
+    Path repository;
+
+    private void write(String relativePath, String text) throws IOException {
+        Path file = repository.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRulesOfParentsAndSubDirectories() throws IOException {
+        write(".git/info/exclude", "*.local\n");
+        write(".gitignore", "# build outputs\nnode_modules/\n/build\n*.log\n!keep.log\n");
+        write("src/main/.gitignore", "generated/**\n");
+        Path sourceRoot = repository.resolve("src/main");
+
+        GitIgnore rules = GitIgnore.forSourceRoot(sourceRoot).enter(sourceRoot);
+        assertTrue(rules.isIgnored(sourceRoot.resolve("js/node_modules"), true));
+        assertFalse(rules.isIgnored(sourceRoot.resolve("js/node_modules"), false));
+        assertTrue(rules.isIgnored(sourceRoot.resolve("js/debug.log"), false));
+        assertFalse(rules.isIgnored(sourceRoot.resolve("js/keep.log"), false));
+        assertTrue(rules.isIgnored(sourceRoot.resolve("Notes.local"), false));
+        assertTrue(rules.isIgnored(sourceRoot.resolve("generated/Parser.java"), false));
+        // anchored at the repository root only
+        assertFalse(rules.isIgnored(sourceRoot.resolve("build"), true));
+        assertFalse(rules.isIgnored(sourceRoot.resolve("java/Main.java"), false));
+    }
+
+    @Test
+    void testOutsideOfRepository() throws IOException {
+        GitIgnore rules = GitIgnore.forSourceRoot(repository);
+        assertFalse(rules.isIgnored(repository.resolve("node_modules"), true));
+
+        write(".gitignore", "node_modules/\n");
+        assertTrue(rules.enter(repository).isIgnored(repository.resolve("node_modules"), true));
+    }
+
+    @Test
+    void testPatternSyntax() {
+        assertNull(GitIgnore.Rule.parse("   "));
+        assertNull(GitIgnore.Rule.parse("# comment"));
+        assertNotNull(GitIgnore.Rule.parse("\\#file"));
+        assertNotNull(GitIgnore.Rule.parse("a/**/b"));
+        assertNotNull(GitIgnore.Rule.parse("[!a-c]?.txt"));
+    }
+}
@@ -0,0 +1,141 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.codehaus.mojo.taglist.tags.IgnoreCaseTag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the line cursor.
+ */
+class LineCursorTest {
+
+    private static List<String> readLines(LineCursor cursor) throws IOException {
+        List<String> lines = new ArrayList<>();
+        while (cursor.nextLine()) {
+            lines.add(cursor.getLineNumber() + ":" + cursor);
+        }
+        return lines;
+    }
+
+    @Test
+    void testLineTerminators() throws IOException {
+        LineCursor cursor = new LineCursor(new StringReader("a\nb\r\nc\rd\n\ne"));
+        List<String> expected = new ArrayList<>();
+        expected.add("1:a");
+        expected.add("2:b");
+        expected.add("3:c");
+        expected.add("4:d");
+        expected.add("5:");
+        expected.add("6:e");
+        assertEquals(expected, readLines(cursor));
+    }
+
+    @Test
+    void testLineLongerThanMaximumIsRejected() throws IOException {
+        LineCursor cursor = new LineCursor(new StringReader("short\nthis line is too long\n"), new char[4]);
+        cursor.setMaxLineLength(10);
+        assertTrue(cursor.nextLine());
+        assertEquals("short", cursor.toString());
+        assertThrows(LineTooLongException.class, cursor::nextLine);
+    }
+
+    @Test
+    void testMarkAndResetAcrossBufferRefills() throws IOException {
+        StringBuilder text = new StringBuilder("first\r\n");
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longLine.append((char) ('a' + i % 26));
+        }
+        text.append(longLine).append("\r\nlast");
+
+        LineCursor cursor = new LineCursor(new StringReader(text.toString()));
+        assertTrue(cursor.nextLine());
+        cursor.mark();
+        assertTrue(cursor.nextLine());
+        assertEquals(longLine.toString(), cursor.toString());
+        assertTrue(cursor.nextLine());
+        cursor.reset();
+
+        assertEquals("first", cursor.toString());
+        assertEquals(1, cursor.getLineNumber());
+        assertTrue(cursor.nextLine());
+        assertEquals(longLine.length(), cursor.length());
+        assertTrue(cursor.nextLine());
+        assertEquals("last", cursor.toString());
+        assertEquals(3, cursor.getLineNumber());
+        assertFalse(cursor.nextLine());
+    }
+
+    @Test
+    void testIgnoreCaseMatchesInPlace() throws IOException {
+        IgnoreCaseTag tag = new IgnoreCaseTag("fixme");
+        Locale turkish = new Locale("tr", "TR");
+        String[] lines = {"// FIXME in ASCII", "// fıxme in Turkish", "// Fixme in English", "// FİXME non ASCII"};
+        for (Locale locale : new Locale[] {Locale.ENGLISH, turkish}) {
+            LineCursor cursor = new LineCursor(new StringReader(String.join("\n", lines)));
+            for (String line : lines) {
+                assertTrue(cursor.nextLine());
+                assertEquals(tag.contains(line, locale), tag.contains((CharSequence) cursor, locale), line);
+            }
+        }
+    }
+
+    @Test
+    void testScanBuffersAreReusedAcrossFiles() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            // multi byte characters that straddle the byte buffer boundaries
+            text.append("// TODO caf\u00e9 \ud83d\ude00 ").append(i).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        ScanBuffers buffers = new ScanBuffers();
+        for (int file = 0; file < 2; file++) {
+            assertTrue(buffers.isFree());
+            int lines = 0;
+            ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+            try (LineCursor cursor = buffers.open(channel, StandardCharsets.UTF_8, false, false, false)) {
+                assertFalse(buffers.isFree());
+                while (cursor.nextLine()) {
+                    assertEquals("// TODO caf\u00e9 \ud83d\ude00 " + lines, cursor.toString());
+                    lines++;
+                }
+            }
+            assertEquals(5000, lines);
+        }
+        assertTrue(buffers.isFree());
+    }
+}
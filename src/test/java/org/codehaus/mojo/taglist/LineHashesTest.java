@@ -0,0 +1,90 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests for the line hashes.
+ */
+class LineHashesTest {
+
+    private static LineHashes hash(String text) {
+        LineHashes lineHashes = new LineHashes();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        // split the bytes between two reads, in the middle of a "\r\n"
+        int split = text.indexOf("\r\n") + 1;
+        lineHashes.update(ByteBuffer.wrap(bytes, 0, split));
+        lineHashes.update(ByteBuffer.wrap(bytes, split, bytes.length - split));
+        lineHashes.finish();
+        return lineHashes;
+    }
+
+    private static int countLines(String text) throws IOException {
+        LineCursor cursor = new LineCursor(new StringReader(text));
+        int lines = 0;
+        while (cursor.nextLine()) {
+            lines++;
+        }
+        return lines;
+    }
+
+    @Test
+    void testLinesAreTheOnesOfTheCursor() throws IOException {
+        for (String text : new String[] {"a\r\nb\rc\n\nd", "a\r\nb\n", "\r\n\r\n", "a\r\n\rb"}) {
+            LineHashes lineHashes = hash(text);
+            assertEquals(countLines(text), lineHashes.getLineCount(), text);
+        }
+        LineHashes lineHashes = hash("ab\r\ncd\ref\n\ngh");
+        assertEquals(0, lineHashes.getLineStart(1));
+        assertEquals(4, lineHashes.getLineStart(2));
+        assertEquals(7, lineHashes.getLineStart(3));
+        assertEquals(10, lineHashes.getLineStart(4));
+        assertEquals(11, lineHashes.getLineStart(5));
+        long[] hashes = lineHashes.getHashes();
+        assertNotEquals(hashes[0], hashes[1]);
+        // the terminators are not hashed
+        assertEquals(hash("x\r\nab\r\ncd").getHashes()[1], hash("x\r\nab\ncd").getHashes()[1]);
+    }
+
+    @Test
+    void testCommonPrefixAndSuffix() {
+        long[] previous = {1, 2, 3, 4, 5};
+        assertEquals(2, LineHashes.commonPrefix(previous, new long[] {1, 2, 9, 4, 5}));
+        assertEquals(2, LineHashes.commonSuffix(previous, new long[] {1, 2, 9, 4, 5}, 2));
+        // an inserted line
+        long[] inserted = {1, 2, 3, 9, 4, 5};
+        assertEquals(3, LineHashes.commonPrefix(previous, inserted));
+        assertEquals(2, LineHashes.commonSuffix(previous, inserted, 3));
+        // a removed repeated line is not counted twice
+        long[] repeated = {7, 7, 7};
+        long[] removed = {7, 7};
+        assertEquals(2, LineHashes.commonPrefix(repeated, removed));
+        assertEquals(0, LineHashes.commonSuffix(repeated, removed, 2));
+    }
+}
@@ -0,0 +1,157 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.mojo.taglist.beans.SkippedFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the scan cache.
+ */
+class ScanCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testResultsAreReadBack() throws IOException {
+        Path source = Files.write(directory.resolve("Source.java"), new byte[] {'a'});
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Path file = directory.resolve("cache/scan-cache.bin");
+
+        ScanCache cache = ScanCache.load(file, "tags=TODO", new SystemStreamLog());
+        assertNull(cache.getFile(source, attributes));
+        cache.putFile(
+                source,
+                new ScanCache.FileEntry(
+                        attributes.size(),
+                        attributes.lastModifiedTime().toMillis(),
+                        "UTF-8",
+                        true,
+                        "org.foo",
+                        SkippedFile.Reason.LINE_LENGTH,
+                        Arrays.asList(new TagOccurrence(1, 12, "a comment", 0), new TagOccurrence(0, 20, 7, 2, "//")),
+                        new long[] {3, 5}));
+        cache.putDirectory(
+                directory,
+                new ScanCache.DirectoryEntry(42, Collections.singletonList("Source.java"), Collections.emptyList()));
+        cache.save();
+
+        cache = ScanCache.load(file, "tags=TODO", new SystemStreamLog());
+        ScanCache.FileEntry entry = cache.getFile(source, attributes);
+        assertNotNull(entry);
+        assertEquals("org.foo", entry.getPackageName());
+        assertEquals(SkippedFile.Reason.LINE_LENGTH, entry.getSkipReason());
+        assertEquals(2, entry.getOccurrences().size());
+        assertEquals("a comment", entry.getOccurrences().get(0).getComment());
+        TagOccurrence deferred = entry.getOccurrences().get(1);
+        assertEquals(20, deferred.getLineNumber());
+        assertEquals(7, deferred.getColumn());
+        assertEquals(2, deferred.getContinuationLines());
+        assertEquals("//", deferred.getCommentType());
+        assertArrayEquals(new long[] {3, 5}, entry.getLineHashes());
+        assertEquals(42, cache.getDirectory(directory).getLastModified());
+        assertEquals(Collections.singletonList("Source.java"), cache.getDirectory(directory).getFileNames());
+
+        // a file is only unchanged when its directory is
+        assertNull(cache.getUnchangedFile(source));
+        cache.trustFile(source);
+        assertNotNull(cache.getUnchangedFile(source));
+    }
+
+    @Test
+    void testCacheOfAnotherConfigurationIsDiscarded() throws IOException {
+        Path source = Files.write(directory.resolve("Source.java"), new byte[] {'a'});
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Path file = directory.resolve("scan-cache.bin");
+
+        ScanCache cache = ScanCache.load(file, "tags=TODO", new SystemStreamLog());
+        cache.putFile(
+                source,
+                new ScanCache.FileEntry(
+                        attributes.size(),
+                        attributes.lastModifiedTime().toMillis(),
+                        "UTF-8",
+                        false,
+                        null,
+                        null,
+                        Collections.emptyList(),
+                        null));
+        cache.save();
+
+        assertNull(ScanCache.load(file, "tags=FIXME", new SystemStreamLog()).getFile(source, attributes));
+
+        // a damaged cache is ignored
+        Files.write(file, new byte[] {1, 2, 3});
+        assertNull(ScanCache.load(file, "tags=TODO", new SystemStreamLog()).getFile(source, attributes));
+    }
+
+    @Test
+    void testMemoryCacheEvictsLeastRecentlyUsed() throws IOException {
+        Path[] sources = new Path[3];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = Files.write(directory.resolve("Source" + i + ".java"), new byte[] {'a'});
+        }
+        BasicFileAttributes attributes = Files.readAttributes(sources[0], BasicFileAttributes.class);
+        ScanCache.FileEntry entry = new ScanCache.FileEntry(
+                attributes.size(),
+                attributes.lastModifiedTime().toMillis(),
+                "UTF-8",
+                false,
+                null,
+                null,
+                Collections.emptyList(),
+                null);
+        // room for two entries without occurrences
+        MemoryScanCache memoryCache = new MemoryScanCache();
+        memoryCache.raiseMaxHeapSize(2 * (160 + 2 * sources[0].toAbsolutePath().toString().length()) + 10);
+        // a smaller size asked for by another project does not shrink the cache
+        memoryCache.raiseMaxHeapSize(1);
+
+        ScanCache cache = ScanCache.load(null, "tags=TODO", memoryCache, new SystemStreamLog());
+        cache.putFile(sources[0], entry);
+        cache.putFile(sources[1], entry);
+        cache.save();
+
+        // a new analysis without a cache file uses the memory cache, and refreshes the entries it uses
+        cache = ScanCache.load(null, "tags=TODO", memoryCache, new SystemStreamLog());
+        assertNotNull(cache.getFile(sources[0], attributes));
+        cache.putFile(sources[2], entry);
+        assertEquals(2, memoryCache.size());
+        assertNotNull(cache.getFile(sources[0], attributes));
+        assertNull(cache.getFile(sources[1], attributes));
+        assertNull(ScanCache.load(null, "tags=FIXME", memoryCache, new SystemStreamLog())
+                .getFile(sources[2], attributes));
+    }
+}
@@ -159,6 +159,32 @@ public class TaglistMojoBasicConfigTest extends AbstractTaglistMojoTestCase {
         assertTrue("Missing with tag result.", htmlString.contains(expected));
     }
 
+    /**
+     * Test that the maximum number of details of a tag class keeps the exact counts.
+     *
+     * @throws Exception
+     */
+    public void testMaxDetailsKeepsCounts() throws Exception {
+        File pluginXmlFile = new File(getBasedir(), "/src/test/resources/unit/basic-config-test/max-details-pom.xml");
+        TagListReport mojo = super.getTagListReport(pluginXmlFile);
+
+        mojo.execute();
+
+        String htmlString = super.getGeneratedOutput(mojo);
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        // Both tags are counted
+        assertTrue("Incorrect number of colon matches.", xmlString.contains("<tag name=\"@colons\" count=\"2\">"));
+        assertTrue(
+                "Incorrect number of file matches.",
+                xmlString.contains("<file name=\"com.BasicConfig\" count=\"2\">"));
+
+        // Only the first one is detailed
+        assertTrue("Missing first tag result.", htmlString.contains("<td>This is without colon.</td>"));
+        assertFalse("Second tag result is detailed.", htmlString.contains("<td>This is with colon.</td>"));
+        assertTrue("Missing package count.", htmlString.contains("<td>com</td>"));
+    }
+
     /**
      * Test support empty "tag" and "tag:".
      *
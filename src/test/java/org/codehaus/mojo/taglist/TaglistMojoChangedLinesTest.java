@@ -0,0 +1,88 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.mojo.taglist.beans.FileReport;
+import org.codehaus.mojo.taglist.beans.TagReport;
+
+/**
+ * Test the scan of the changed lines of large files.
+ */
+public class TaglistMojoChangedLinesTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that only the changed lines of a large file are scanned again, with the same results as a full scan.
+     *
+     * @throws Exception
+     */
+    public void testChangedLinesAreRescanned() throws Exception {
+        File testDir = new File(getBasedir(), "/target/test-classes/unit/changed-lines-test");
+        Path root = Files.createDirectories(new File(testDir, "java-sources").toPath());
+        Path source = root.resolve("Large.java");
+        List<String> lines = new ArrayList<>();
+        lines.add("package org.large;");
+        for (int i = 0; i < 200; i++) {
+            lines.add(i % 20 == 0 ? "// @colons tag " + i : "int field" + i + ";");
+            if (i % 50 == 0) {
+                lines.add("// continued " + i);
+            }
+        }
+        Files.write(source, lines, StandardCharsets.UTF_8);
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/changed-lines-test/changed-lines-pom.xml");
+        TagListReport mojo = super.getTagListReport(pluginXmlFile);
+        File cacheDir = new File(testDir, "scan-cache");
+        Files.deleteIfExists(new File(cacheDir, "scan-cache.bin").toPath());
+        setVariableValueToObject(mojo, "xmlOutputDirectory", cacheDir);
+        setVariableValueToObject(mojo, "incrementalScan", true);
+        newAnalyser(mojo, "@colons").execute(Collections.singletonList(root));
+
+        // change the continuation of a multiple line comment and add a tagged line in the middle of the file
+        lines.set(lines.indexOf("// continued 100"), "// continued differently");
+        lines.add(lines.indexOf("int field130;"), "// @colons inserted");
+        Files.write(source, lines, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+        FileAnalyser analyser = newAnalyser(mojo, "@colons");
+        TagReport tagReport = analyser.execute(Collections.singletonList(root)).iterator().next();
+        FileReport rescanned = tagReport.getFileReports().iterator().next();
+        assertEquals(1, analyser.getStatistics().getPartialRescans());
+        // the package line did not change, its declaration is carried over from the previous scan without reading it
+        assertEquals("org.large", rescanned.getSourceFile().getPackageName());
+        assertNull("The chunk threads outlived the analysis.", getVariableValueFromObject(analyser, "chunkPool"));
+
+        setVariableValueToObject(mojo, "incrementalScan", false);
+        tagReport = newAnalyser(mojo, "@colons").execute(Collections.singletonList(root)).iterator().next();
+        FileReport scanned = tagReport.getFileReports().iterator().next();
+        assertEquals(scanned.getLineIndexes(), rescanned.getLineIndexes());
+        for (Integer line : scanned.getLineIndexes()) {
+            assertEquals(scanned.getComment(line), rescanned.getComment(line));
+        }
+        assertEquals("org.large.Large", rescanned.getClassName());
+    }
+}
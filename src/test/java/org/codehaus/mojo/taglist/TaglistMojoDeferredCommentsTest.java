@@ -0,0 +1,105 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.mojo.taglist.beans.FileReport;
+import org.codehaus.mojo.taglist.tags.GenericTag;
+import org.codehaus.mojo.taglist.tags.TagClass;
+
+/**
+ * Test the comments read back from the source files when the report needs them.
+ */
+public class TaglistMojoDeferredCommentsTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that deferred comments are read back with the same text as comments built while scanning.
+     *
+     * @throws Exception
+     */
+    public void testDeferredCommentsMatchScannedComments() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/deferred-comments-test/deferred-comments-pom.xml");
+        File expectedFile =
+                new File(getBasedir(), "/target/test-classes/unit/deferred-comments-test/expected-taglist.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile);
+        assertGeneratedXMLOutput("Incorrect scanned comments.", expectedFile, mojo);
+
+        // the source encoding is not configured: the byte order mark is dropped when the encoding is detected
+        mojo = executeTagListReport(pluginXmlFile, "deferComments", true);
+        assertGeneratedXMLOutput("Deferred comments differ from scanned comments.", expectedFile, mojo);
+
+        // with a configured encoding the byte order mark is read as a character, by the scan and when reading back
+        mojo = executeTagListReport(pluginXmlFile, "deferComments", true, "configuredEncoding", "UTF-8");
+        assertGeneratedXMLOutput("Deferred comments differ with a configured encoding.", expectedFile, mojo);
+    }
+
+    /**
+     * Test that a file read as UTF-8 because its first bytes are ASCII is read again with the fallback encoding when
+     * it is not UTF-8, by the scan of a small file, the scan of a large file in chunks and when reading back comments.
+     *
+     * @throws Exception
+     */
+    public void testAsciiHeadFallsBackToPlatformEncoding() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/deferred-comments-test/deferred-comments-pom.xml");
+        Path root = new File(getBasedir(), "/target/test-classes/unit/deferred-comments-test/latin-sources").toPath();
+        Path source = root.resolve("org/latin/Latin.java");
+        Files.createDirectories(source.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add("package org.latin;");
+        // an ASCII head longer than the bytes the encoding is detected from
+        String header = "// Licensed under the Apache License, Version 2.0";
+        while (lines.size() * header.length() <= EncodingSniffer.SNIFF_SIZE) {
+            lines.add(header);
+        }
+        lines.add("// TODO caf\u00e9");
+        Files.write(source, lines, StandardCharsets.ISO_8859_1);
+
+        for (long parallelScanThreshold : new long[] {Long.MAX_VALUE, 0}) {
+            for (boolean deferComments : new boolean[] {false, true}) {
+                TagListReport mojo = super.getTagListReport(pluginXmlFile);
+                setVariableValueToObject(mojo, "inputEncoding", "ISO-8859-1");
+                setVariableValueToObject(mojo, "parallelScanThreshold", parallelScanThreshold);
+                setVariableValueToObject(mojo, "deferComments", deferComments);
+                TagClass tagClass = new TagClass("TODO");
+                tagClass.addTag(new GenericTag("TODO"));
+                FileAnalyser analyser = new FileAnalyser(mojo, Collections.singletonList(tagClass));
+                FileReport fileReport = analyser.execute(Collections.singletonList(root))
+                        .iterator()
+                        .next()
+                        .getFileReports()
+                        .iterator()
+                        .next();
+                assertEquals("ISO-8859-1", fileReport.getSourceFile().getEncoding());
+                assertEquals("org.latin.Latin", fileReport.getClassName());
+                assertEquals("caf\u00e9", fileReport.getComment(lines.size()));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * Test the files to scan read from a file list manifest instead of walking the source directories.
+ */
+public class TaglistMojoFileListManifestTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that only the listed files of the source directories are scanned, if they exist and are included.
+     *
+     * @throws Exception
+     */
+    public void testFileListManifestReplacesTheWalk() throws Exception {
+        File testDir = new File(getBasedir(), "/target/test-classes/unit/file-list-manifest-test");
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/file-list-manifest-test/file-list-manifest-pom.xml");
+
+        TagListReport mojo =
+                executeTagListReport(pluginXmlFile, "fileListManifest", new File(testDir, "file-list.txt"));
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        assertTrue("Listed file was not scanned.", xmlString.contains("<file name=\"com.Listed\" count=\"1\">"));
+        assertFalse("Unlisted file was scanned.", xmlString.contains("com.Unlisted"));
+    }
+
+    /**
+     * Test that the listed files outside of the source directories are left out.
+     *
+     * @throws Exception
+     */
+    public void testFilesOutsideOfSourcesAreLeftOut() throws Exception {
+        File testDir = new File(getBasedir(), "/target/test-classes/unit/file-list-manifest-test");
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/file-list-manifest-test/file-list-manifest-pom.xml");
+
+        TagListReport mojo =
+                executeTagListReport(pluginXmlFile, "fileListManifest", new File(testDir, "outside-sources-list.txt"));
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        assertFalse("Unlisted file was scanned.", xmlString.contains("com.Listed"));
+        assertFalse("File outside of the sources was scanned.", xmlString.contains("<file "));
+    }
+}
@@ -0,0 +1,84 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * Test the generated sources left out of the scan.
+ */
+public class TaglistMojoGeneratedSourcesTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that generated sources are scanned unless skipGeneratedSources is set.
+     *
+     * @throws Exception
+     */
+    public void testGeneratedSourcesAreScannedByDefault() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/generated-sources-test/generated-sources-pom.xml");
+        File expectedFile =
+                new File(getBasedir(), "/target/test-classes/unit/generated-sources-test/expected-taglist.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile);
+        assertGeneratedXMLOutput("Incorrect scanned files.", expectedFile, mojo);
+    }
+
+    /**
+     * Test that the files marked by the default markers or in a generated sources directory are skipped.
+     *
+     * @throws Exception
+     */
+    public void testDefaultMarkersAndPathsAreSkipped() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/generated-sources-test/generated-sources-pom.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "skipGeneratedSources", true);
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        assertTrue("File without marker was skipped.", xmlString.contains("com.Handwritten"));
+        assertTrue("File with an unknown marker was skipped.", xmlString.contains("com.Produced"));
+        assertFalse("Annotated file was scanned.", xmlString.contains("com.Annotated"));
+        assertFalse("File in generated sources was scanned.", xmlString.contains("com.InGeneratedDirectory"));
+    }
+
+    /**
+     * Test that the configured markers replace the default ones.
+     *
+     * @throws Exception
+     */
+    public void testConfiguredMarkersAreSkipped() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/generated-sources-test/generated-sources-pom.xml");
+
+        TagListReport mojo = executeTagListReport(
+                pluginXmlFile,
+                "skipGeneratedSources",
+                true,
+                "generatedMarkers",
+                new String[] {"Produced by the fixture generator"});
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        assertTrue("File without marker was skipped.", xmlString.contains("com.Handwritten"));
+        assertTrue("File with a default marker was skipped.", xmlString.contains("com.Annotated"));
+        assertFalse("File with the configured marker was scanned.", xmlString.contains("com.Produced"));
+        assertFalse("File in generated sources was scanned.", xmlString.contains("com.InGeneratedDirectory"));
+    }
+}
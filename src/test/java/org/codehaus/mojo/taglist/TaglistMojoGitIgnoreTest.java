@@ -0,0 +1,59 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Test the files ignored by git left out of the scan.
+ */
+public class TaglistMojoGitIgnoreTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that the files ignored by git are left out with respectGitIgnore.
+     *
+     * @throws Exception
+     */
+    public void testGitIgnoredFilesAreSkipped() throws Exception {
+        File pluginXmlFile = new File(getBasedir(), "/src/test/resources/unit/git-ignore-test/git-ignore-pom.xml");
+        // the rules are written by the test, as the resources and git both leave .gitignore files out of the fixture
+        Path gitIgnore =
+                new File(getBasedir(), "/target/test-classes/unit/git-ignore-test/java-sources/.gitignore").toPath();
+        Files.write(gitIgnore, "out/\n*Scratch.java\n!KeptScratch.java\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            TagListReport mojo = executeTagListReport(pluginXmlFile);
+            String xmlString = super.getGeneratedXMLOutput(mojo);
+            assertTrue("File was skipped.", xmlString.contains("com.Scratch"));
+            assertTrue("File was skipped.", xmlString.contains("com.Output"));
+
+            mojo = executeTagListReport(pluginXmlFile, "respectGitIgnore", true);
+            xmlString = super.getGeneratedXMLOutput(mojo);
+            assertTrue("File without matching rule was skipped.", xmlString.contains("com.Kept\""));
+            assertTrue("Re-included file was skipped.", xmlString.contains("com.KeptScratch"));
+            assertFalse("Ignored file was scanned.", xmlString.contains("com.Scratch"));
+            assertFalse("File in ignored directory was scanned.", xmlString.contains("com.Output"));
+        } finally {
+            Files.delete(gitIgnore);
+        }
+    }
+}
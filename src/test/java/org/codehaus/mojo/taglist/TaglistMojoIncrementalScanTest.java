@@ -0,0 +1,75 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.codehaus.mojo.taglist.beans.FileReport;
+import org.codehaus.mojo.taglist.beans.TagReport;
+
+/**
+ * Test the reuse of the scan results of unchanged files and directories.
+ */
+public class TaglistMojoIncrementalScanTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that the results of unchanged files and directories are taken from the scan cache.
+     *
+     * @throws Exception
+     */
+    public void testIncrementalScanReusesUnchangedFiles() throws Exception {
+        File testDir = new File(getBasedir(), "/target/test-classes/unit/incremental-scan-test");
+        Path root = new File(testDir, "java-sources").toPath();
+        Path com = root.resolve("com");
+        Files.deleteIfExists(com.resolve("Added.java"));
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/incremental-scan-test/incremental-scan-pom.xml");
+        TagListReport mojo = super.getTagListReport(pluginXmlFile);
+        File cacheDir = new File(testDir, "incremental-cache");
+        Files.deleteIfExists(new File(cacheDir, "scan-cache.bin").toPath());
+        setVariableValueToObject(mojo, "xmlOutputDirectory", cacheDir);
+        setVariableValueToObject(mojo, "incrementalScan", true);
+        setVariableValueToObject(mojo, "trustDirectoryTimestamps", true);
+
+        FileAnalyser analyser = newAnalyser(mojo, "@colons");
+        assertEquals(2, analyser.execute(Collections.singletonList(root)).iterator().next().getTagCount());
+        assertEquals(0, analyser.getStatistics().getCachedFilesReused());
+
+        analyser = newAnalyser(mojo, "@colons");
+        TagReport tagReport = analyser.execute(Collections.singletonList(root)).iterator().next();
+        assertEquals(2, tagReport.getTagCount());
+        assertEquals(1, analyser.getStatistics().getCachedFilesReused());
+        assertEquals(2, analyser.getStatistics().getUnchangedDirectories());
+        FileReport fileReport = tagReport.getFileReports().iterator().next();
+        assertEquals("com.Colons", fileReport.getClassName());
+        assertEquals("This is without colon.", fileReport.getComment(6));
+
+        // adding a file changes its directory, which is listed again
+        Files.write(com.resolve("Added.java"), "// @colons added\n".getBytes(StandardCharsets.UTF_8));
+        analyser = newAnalyser(mojo, "@colons");
+        assertEquals(3, analyser.execute(Collections.singletonList(root)).iterator().next().getTagCount());
+        assertEquals(1, analyser.getStatistics().getCachedFilesReused());
+        assertEquals(1, analyser.getStatistics().getUnchangedDirectories());
+    }
+}
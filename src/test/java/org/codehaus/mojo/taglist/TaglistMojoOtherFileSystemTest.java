@@ -0,0 +1,70 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.codehaus.mojo.taglist.beans.FileReport;
+import org.codehaus.mojo.taglist.beans.TagReport;
+
+/**
+ * Test the scan of source directories on another file system than the default one.
+ */
+public class TaglistMojoOtherFileSystemTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that source directories on another file system than the default one are scanned.
+     *
+     * @throws Exception
+     */
+    public void testScanOnAnotherFileSystem() throws Exception {
+        File testDir = new File(getBasedir(), "/target/test-classes/unit/other-file-system-test");
+        File source = new File(testDir, "java-sources/com/Colons.java");
+        File archive = new File(testDir, "filesystem-sources.zip");
+        Files.deleteIfExists(archive.toPath());
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/other-file-system-test/other-file-system-pom.xml");
+        TagListReport mojo = super.getTagListReport(pluginXmlFile);
+
+        URI uri = URI.create("jar:" + archive.toURI());
+        try (FileSystem fileSystem = FileSystems.newFileSystem(uri, Collections.singletonMap("create", "true"))) {
+            Path root = fileSystem.getPath("/sources");
+            Files.createDirectories(root.resolve("com"));
+            Files.copy(source.toPath(), root.resolve("com/Colons.java"));
+            Files.write(root.resolve("com/Ignored.txt"), "@colons not included".getBytes(StandardCharsets.UTF_8));
+
+            TagReport tagReport =
+                    newAnalyser(mojo, "@colons").execute(Collections.singletonList(root)).iterator().next();
+
+            assertEquals("Incorrect number of colon matches.", 2, tagReport.getTagCount());
+            FileReport fileReport = tagReport.getFileReports().iterator().next();
+            assertEquals("com.Colons", fileReport.getClassName());
+            assertEquals(fileSystem, fileReport.getSourceFile().getPath().getFileSystem());
+            assertEquals("This is without colon.", fileReport.getComment(6));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * Test the scan of large files in parallel chunks.
+ */
+public class TaglistMojoParallelScanTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that a multiple line comment crossing the chunk boundaries is read like in a sequential scan, and that the
+     * line numbers of the later chunks are counted from the start of the file.
+     *
+     * @throws Exception
+     */
+    public void testCommentAcrossChunksMatchesSequentialScan() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/parallel-scan-test/parallel-scan-pom.xml");
+
+        TagListReport mojo = super.getTagListReport(pluginXmlFile);
+        setVariableValueToObject(mojo, "parallelScanThreshold", Long.MAX_VALUE);
+        mojo.execute();
+        String sequentialXml = super.getGeneratedXMLOutput(mojo);
+
+        // every line break after the first comment line is a possible split point, whatever the number of processors
+        mojo = super.getTagListReport(pluginXmlFile);
+        setVariableValueToObject(mojo, "parallelScanThreshold", 1L);
+        mojo.execute();
+        String parallelXml = super.getGeneratedXMLOutput(mojo);
+
+        assertTrue(
+                "Missing spanning comment.",
+                parallelXml.contains("<lineNumber>9</lineNumber><comment>This comment starts on line 9"
+                        + " and goes on with continuation line 1 and goes on with continuation line 2 "));
+        assertTrue(
+                "Missing continuation lines.",
+                parallelXml.contains("and goes on with continuation line 100 and goes on with continuation line 101 "));
+        assertTrue(
+                "Spanning comment does not end on its last line.",
+                parallelXml.contains("and goes on with continuation line 200</comment>"));
+        assertTrue(
+                "Incorrect line number after the spanning comment.",
+                parallelXml.contains("<lineNumber>213</lineNumber><comment>This comment follows the spanning comment"
+                        + " and ends on the next line</comment>"));
+        assertEquals("Parallel scan differs from sequential scan.", sequentialXml, parallelXml);
+    }
+}
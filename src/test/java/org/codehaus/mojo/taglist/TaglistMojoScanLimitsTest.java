@@ -0,0 +1,78 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * Test the files left out of the scan by the file size and line length limits.
+ */
+public class TaglistMojoScanLimitsTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that every file is scanned when no limit is set.
+     *
+     * @throws Exception
+     */
+    public void testNoLimitByDefault() throws Exception {
+        File pluginXmlFile = new File(getBasedir(), "/src/test/resources/unit/scan-limits-test/scan-limits-pom.xml");
+        File expectedFile = new File(getBasedir(), "/target/test-classes/unit/scan-limits-test/expected-taglist.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile);
+        assertGeneratedXMLOutput("Incorrect scanned files.", expectedFile, mojo);
+        assertFalse("Unexpected skipped file.", super.getGeneratedOutput(mojo).contains("<td>com/"));
+    }
+
+    /**
+     * Test that a file with a line over the line length limit is listed as skipped instead of being scanned.
+     *
+     * @throws Exception
+     */
+    public void testFileWithLongLineIsSkipped() throws Exception {
+        File pluginXmlFile = new File(getBasedir(), "/src/test/resources/unit/scan-limits-test/scan-limits-pom.xml");
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "maxLineLength", 200);
+        String htmlString = super.getGeneratedOutput(mojo);
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        assertTrue("Missing skipped file.", htmlString.contains("<td>com/Minified.java</td>"));
+        assertTrue("Missing skip reason.", htmlString.contains("Line longer than the maximum line length"));
+        assertFalse("Skipped file was scanned.", xmlString.contains("com.Minified"));
+        assertTrue("File within the limit was skipped.", xmlString.contains("com.Large"));
+        assertTrue("File within the limit was skipped.", xmlString.contains("com.Small"));
+    }
+
+    /**
+     * Test that a file over the file size limit is listed as skipped instead of being scanned.
+     *
+     * @throws Exception
+     */
+    public void testFileOverSizeIsSkipped() throws Exception {
+        File pluginXmlFile = new File(getBasedir(), "/src/test/resources/unit/scan-limits-test/scan-limits-pom.xml");
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "maxFileSize", 1000L);
+        String htmlString = super.getGeneratedOutput(mojo);
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+
+        assertTrue("Missing skipped file.", htmlString.contains("<td>com/Large.java</td>"));
+        assertTrue("Missing skip reason.", htmlString.contains("File larger than the maximum file size"));
+        assertFalse("Skipped file was scanned.", xmlString.contains("com.Large"));
+        assertTrue("File within the limit was skipped.", xmlString.contains("com.Minified"));
+        assertTrue("File within the limit was skipped.", xmlString.contains("com.Small"));
+    }
+}
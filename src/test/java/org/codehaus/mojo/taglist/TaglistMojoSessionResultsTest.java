@@ -0,0 +1,74 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Map;
+
+import org.codehaus.mojo.taglist.beans.TagListResult;
+import org.eclipse.aether.RepositorySystemSession;
+
+/**
+ * Test the results shared by the executions of the report in one build.
+ */
+public class TaglistMojoSessionResultsTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that the executions of the report in one build share the results of the same analysis.
+     *
+     * @throws Exception
+     */
+    public void testResultsAreSharedInSession() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/session-results-test/session-results-pom.xml");
+        File expectedFile =
+                new File(getBasedir(), "/target/test-classes/unit/session-results-test/expected-taglist.xml");
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "reuseResultsInSession", true);
+        assertGeneratedXMLOutput("Incorrect analyzed results.", expectedFile, mojo);
+        RepositorySystemSession session = (RepositorySystemSession) getVariableValueFromObject(mojo, "repoSession");
+        Map<?, ?> sharedResults = (Map<?, ?>) session.getData().get(TagListResult.class);
+        assertFalse(
+                "A result no other execution asked for was kept.",
+                sharedResults.containsValue(getVariableValueFromObject(mojo, "tagListResult")));
+
+        // a second execution of the same analysis keeps its result for the next ones
+        mojo = executeTagListReport(pluginXmlFile, "reuseResultsInSession", true, "repoSession", session);
+        Object keptResult = getVariableValueFromObject(mojo, "tagListResult");
+        String analyzedHtml = super.getGeneratedOutput(mojo);
+        assertTrue("The result asked for twice was not kept.", sharedResults.containsValue(keptResult));
+
+        // another execution with the same sources and configuration reuses the results, also when checking them first
+        mojo = super.getTagListReport(pluginXmlFile);
+        setVariableValueToObject(mojo, "reuseResultsInSession", true);
+        setVariableValueToObject(mojo, "repoSession", session);
+        assertTrue(mojo.canGenerateReport());
+        mojo.execute();
+        assertSame(keptResult, getVariableValueFromObject(mojo, "tagListResult"));
+        assertEquals("Shared results differ from analyzed results.", analyzedHtml, super.getGeneratedOutput(mojo));
+
+        // another configuration is analyzed again
+        mojo = executeTagListReport(
+                pluginXmlFile, "reuseResultsInSession", true, "repoSession", session, "emptyComments", true);
+        assertFalse(sharedResults.containsValue(getVariableValueFromObject(mojo, "tagListResult")));
+        assertTrue(
+                "Results of another configuration were shared.",
+                super.getGeneratedOutput(mojo).contains("<td>--No comment--</td><td>11</td>"));
+    }
+}
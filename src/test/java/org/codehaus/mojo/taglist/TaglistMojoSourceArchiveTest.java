@@ -0,0 +1,59 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Test the scan of source archives.
+ */
+public class TaglistMojoSourceArchiveTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that the entries of source archives are scanned and reported with archive-qualified names.
+     *
+     * @throws Exception
+     */
+    public void testSourceArchiveEntriesAreScanned() throws Exception {
+        File testDir = new File(getBasedir(), "/target/test-classes/unit/source-archive-test");
+        File archive = new File(testDir, "packed-sources.jar");
+        Path archiveSources = new File(testDir, "archive-sources").toPath();
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+            out.putNextEntry(new ZipEntry("com/"));
+            for (String entry : new String[] {"com/Packed.java", "com/notes.txt"}) {
+                out.putNextEntry(new ZipEntry(entry));
+                Files.copy(archiveSources.resolve(entry), out);
+            }
+        }
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/source-archive-test/source-archive-pom.xml");
+        File expectedFile = new File(testDir, "expected-taglist.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "sourceArchives", new File[] {archive});
+        assertGeneratedXMLOutput("Incorrect archive entries.", expectedFile, mojo);
+
+        mojo = executeTagListReport(pluginXmlFile, "sourceArchives", new File[] {archive}, "deferComments", true);
+        assertGeneratedXMLOutput("Deferred entry comments differ.", expectedFile, mojo);
+    }
+}
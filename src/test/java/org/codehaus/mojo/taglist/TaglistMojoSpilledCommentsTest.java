@@ -0,0 +1,68 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * Test the comments spilled to disk past the heap budget of the comment texts.
+ */
+public class TaglistMojoSpilledCommentsTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * Test that comments spilled to disk are rendered like comments kept on the heap.
+     *
+     * @throws Exception
+     */
+    public void testSpilledCommentsMatchHeapComments() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/spilled-comments-test/spilled-comments-pom.xml");
+        File expectedFile =
+                new File(getBasedir(), "/target/test-classes/unit/spilled-comments-test/expected-taglist.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile);
+        assertGeneratedXMLOutput("Incorrect heap comments.", expectedFile, mojo);
+
+        mojo = executeTagListReport(pluginXmlFile, "commentHeapBudget", 1L);
+        assertGeneratedXMLOutput("Spilled comments differ from heap comments.", expectedFile, mojo);
+        assertNull("A spilled result is released.", getVariableValueFromObject(mojo, "tagListResult"));
+    }
+
+    /**
+     * Test that the result kept on the heap is reused by the report of another locale.
+     *
+     * @throws Exception
+     */
+    public void testHeapResultIsKeptForOtherLocales() throws Exception {
+        File pluginXmlFile =
+                new File(getBasedir(), "/src/test/resources/unit/spilled-comments-test/spilled-comments-pom.xml");
+
+        TagListReport mojo = executeTagListReport(pluginXmlFile);
+        Object heapResult = getVariableValueFromObject(mojo, "tagListResult");
+        assertNotNull(heapResult);
+
+        // the report of another locale does not scan the sources again
+        mojo.execute();
+        assertSame(
+                "The result is kept for the next locales.",
+                heapResult,
+                getVariableValueFromObject(mojo, "tagListResult"));
+    }
+}
@@ -0,0 +1,132 @@
+package org.codehaus.mojo.taglist;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Test the results of the previous build reused while no input of the analysis changes.
+ */
+public class TaglistMojoUpToDateTest extends AbstractTaglistMojoTestCase {
+
+    /**
+     * The XML report written over the generated one, which is left alone when the previous results are reused.
+     */
+    private static final String UP_TO_DATE_XML = "<up-to-date/>";
+
+    private File pluginXmlFile;
+
+    private File testDir;
+
+    private File xmlFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        pluginXmlFile = new File(getBasedir(), "/src/test/resources/unit/up-to-date-test/up-to-date-pom.xml");
+        testDir = new File(getBasedir(), "/target/test-classes/unit/up-to-date-test");
+        File xmlOutputDirectory = new File(testDir, "outputDirectory/taglist");
+        Files.deleteIfExists(new File(xmlOutputDirectory, "taglist-snapshot.bin").toPath());
+        xmlFile = new File(xmlOutputDirectory, "taglist.xml");
+    }
+
+    /**
+     * Test that the results of the previous build are restored while no source file changes.
+     *
+     * @throws Exception
+     */
+    public void testUnchangedResultsAreRestored() throws Exception {
+        File expectedFile = new File(testDir, "expected-taglist.xml");
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+        assertGeneratedXMLOutput("Incorrect scanned results.", expectedFile, mojo);
+        String analyzedHtml = super.getGeneratedOutput(mojo);
+
+        // the snapshot is used: the HTML is rendered again, the XML report is left alone
+        markXmlOutput();
+        mojo = executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+        assertEquals("Restored results differ from scanned results.", analyzedHtml, super.getGeneratedOutput(mojo));
+        assertEquals(UP_TO_DATE_XML, super.getGeneratedXMLOutput(mojo));
+    }
+
+    /**
+     * Test that the sources are scanned again when one of them changed.
+     *
+     * @throws Exception
+     */
+    public void testChangedSourceInvalidatesResults() throws Exception {
+        File expectedFile = new File(testDir, "expected-taglist.xml");
+        executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+
+        markXmlOutput();
+        Path source = new File(testDir, "java-sources/com/UpToDate.java").toPath();
+        FileTime lastModified = Files.getLastModifiedTime(source);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(lastModified.toMillis() + 2000));
+        TagListReport mojo = executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+        assertGeneratedXMLOutput("Changed source was not scanned again.", expectedFile, mojo);
+    }
+
+    /**
+     * Test that the sources are scanned again when a source file is added.
+     *
+     * @throws Exception
+     */
+    public void testAddedSourceInvalidatesResults() throws Exception {
+        executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+
+        markXmlOutput();
+        Path added = new File(testDir, "java-sources/com/Added.java").toPath();
+        Files.write(added, "// TODO a tag in an added file\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            TagListReport mojo = executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+            assertTrue("Added source was not scanned.", super.getGeneratedXMLOutput(mojo).contains("Added"));
+        } finally {
+            Files.delete(added);
+        }
+    }
+
+    /**
+     * Test that the sources are scanned again when the configuration of the analysis changed.
+     *
+     * @throws Exception
+     */
+    public void testChangedConfigurationInvalidatesResults() throws Exception {
+        executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true);
+
+        markXmlOutput();
+        TagListReport mojo =
+                executeTagListReport(pluginXmlFile, "reuseUpToDateResults", true, "emptyComments", true);
+        String xmlString = super.getGeneratedXMLOutput(mojo);
+        assertTrue("Empty comment missing after a configuration change.", xmlString.contains("<lineNumber>11"));
+    }
+
+    /**
+     * Replaces the generated XML report, to tell whether the next execution writes it again.
+     *
+     * @throws IOException in case of generic I/O errors.
+     */
+    private void markXmlOutput() throws IOException {
+        Files.write(xmlFile.toPath(), UP_TO_DATE_XML.getBytes(StandardCharsets.UTF_8));
+    }
+}
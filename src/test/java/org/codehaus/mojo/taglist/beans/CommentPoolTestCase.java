@@ -0,0 +1,97 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the comment pool.
+ */
+class CommentPoolTestCase {
+
+    @Test
+    void testIdenticalCommentsAreStoredOnce() {
+        CommentPool pool = new CommentPool();
+        FileReport first = new FileReport(new SourceFileInfo(new File("A.java"), "UTF-8", null), pool);
+        FileReport second = new FileReport(new SourceFileInfo(new File("B.java"), "UTF-8", null), pool);
+
+        first.addComment("Auto-generated method stub", 10);
+        first.addComment("implement", 20);
+        second.addComment(new String("Auto-generated method stub"), 5);
+
+        assertEquals(2, pool.size());
+        assertEquals(3, pool.getLookupCount());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1.0 / 3, pool.getHitRate(), 0.0001);
+        assertSame(first.getCommentAt(0), second.getCommentAt(0));
+        assertEquals("implement", first.getComment(20));
+    }
+
+    @Test
+    void testCommentsOverBudgetAreSpilled() throws IOException {
+        File spillDirectory = new File("target/comment-pool-spill");
+        try (CommentPool pool = new CommentPool(300, spillDirectory)) {
+            int small = pool.add("fits in the budget");
+            StringBuilder large = new StringBuilder();
+            for (int i = 0; i < 100_000; i++) {
+                large.append("spilled \u00e9 ");
+            }
+            int spilled = pool.add(large.toString());
+            int other = pool.add("also spilled");
+
+            assertEquals(2, pool.getSpilledCount());
+            assertEquals(3, pool.size());
+            assertEquals(spilled, pool.add(new String(large)));
+            assertEquals("fits in the budget", pool.get(small));
+            assertEquals(large.toString(), pool.get(spilled));
+            assertEquals("also spilled", pool.get(other));
+            assertEquals(1, spillDirectory.list().length);
+        }
+        assertTrue(spillDirectory.list().length == 0);
+    }
+
+    @Test
+    void testSpilledCommentsAreReadAcrossWindows() throws IOException {
+        File spillDirectory = new File("target/comment-pool-windows");
+        try (CommentPool pool = new CommentPool(1, spillDirectory)) {
+            int count = 20_000;
+            int[] ids = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = pool.add("spilled comment number " + i);
+            }
+
+            assertEquals(count, pool.getSpilledCount());
+            for (int i = count - 1; i >= 0; i -= 7) {
+                assertEquals("spilled comment number " + i, pool.get(ids[i]));
+            }
+            for (int i = 0; i < count; i += 3) {
+                assertEquals("spilled comment number " + i, pool.get(ids[i]));
+            }
+        }
+        assertEquals(0, spillDirectory.list().length);
+    }
+}
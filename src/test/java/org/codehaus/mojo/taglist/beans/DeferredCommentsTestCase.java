@@ -0,0 +1,64 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the comments read back from their file.
+ */
+class DeferredCommentsTestCase {
+
+    @Test
+    void testByteOrderMarkIsSkippedLikeTheScan(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("Bom.java");
+        Files.write(file, "\uFEFF// TODO first line\n// TODO second line\n".getBytes(StandardCharsets.UTF_8));
+        SourceFileInfo sourceFile = new SourceFileInfo(file, "UTF-8", directory);
+
+        // the scan decodes after the byte order mark, so the tag ends at column 7 of the first line
+        DeferredComments comments = new DeferredComments(sourceFile, new CommentPool(), true);
+        int first = comments.add(1, 7, 0, "//");
+        int second = comments.add(2, 7, 0, "//");
+
+        assertEquals("first line", comments.get(first));
+        assertEquals("second line", comments.get(second));
+    }
+
+    @Test
+    void testByteOrderMarkIsKeptWithoutDetection(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("Bom.java");
+        Files.write(file, "\uFEFF// TODO first line\n".getBytes(StandardCharsets.UTF_8));
+        SourceFileInfo sourceFile = new SourceFileInfo(file, "UTF-8", directory);
+
+        // without detection the scan decodes the byte order mark as a character of the first line
+        DeferredComments comments = new DeferredComments(sourceFile, new CommentPool());
+        int first = comments.add(1, 8, 0, "//");
+
+        assertEquals("first line", comments.get(first));
+    }
+}
@@ -0,0 +1,58 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for the directory trie.
+ */
+class DirectoryTrieTestCase {
+
+    @Test
+    void testFilesShareDirectories() {
+        DirectoryTrie trie = new DirectoryTrie();
+        File dir = new File("target/trie/src/main/java/com").getAbsoluteFile();
+        SourceFileInfo first = new SourceFileInfo(trie, new File(dir, "First.java"), "UTF-8", null);
+        SourceFileInfo second = new SourceFileInfo(trie, new File(dir, "Second.java"), "UTF-8", null);
+        SourceFileInfo nested = new SourceFileInfo(trie, new File(dir, "sub/Nested.java"), "UTF-8", null);
+
+        assertSame(first.getDirectory(), second.getDirectory());
+        assertSame(first.getDirectory(), nested.getDirectory().getParent());
+        assertEquals(new File(dir, "First.java"), first.getFile());
+        assertEquals(new File(dir, "sub/Nested.java"), nested.getFile());
+        assertEquals(dir.getPath(), first.getDirectory().getPath());
+    }
+
+    @Test
+    void testEqualityAcrossTries() {
+        File file = new File("target/trie/Same.java");
+        SourceFileInfo first = new SourceFileInfo(new DirectoryTrie(), file, "UTF-8", null);
+        SourceFileInfo second = new SourceFileInfo(new DirectoryTrie(), file, "UTF-8", null);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+}
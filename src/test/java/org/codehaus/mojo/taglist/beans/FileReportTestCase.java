@@ -20,10 +20,16 @@ package org.codehaus.mojo.taglist.beans;
  */
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests for file report.
@@ -41,4 +47,61 @@ class FileReportTestCase {
         FileReport fileReport = new FileReport(file, "UTF-8");
         assertEquals("org.codehaus.mojo.taglist.beans.XYjavatest", fileReport.getClassName());
     }
+
+    @Test
+    void testCommentsAreSortedByLineIndex() {
+        FileReport fileReport = new FileReport(new File("Test.java"), "UTF-8");
+        fileReport.addComment("third", 30);
+        fileReport.addComment("first", 10);
+        fileReport.addComment("second", 20);
+        fileReport.addComment("replaced", 20);
+        fileReport.addComment("fourth", 40);
+
+        assertEquals(4, fileReport.getCommentCount());
+        assertEquals(Arrays.asList(10, 20, 30, 40), new ArrayList<>(fileReport.getLineIndexes()));
+        assertEquals("first", fileReport.getCommentAt(0));
+        assertEquals("replaced", fileReport.getComment(20));
+        assertEquals("fourth", fileReport.getCommentAt(3));
+        assertNull(fileReport.getComment(25));
+    }
+
+    @Test
+    void testTagReportsShareSourceFile() {
+        SourceFileInfo sourceFile = new SourceFileInfo(new File("Test.java"), "UTF-8", null);
+        FileReport todoReport = new TagReport("TODO", "tag_class_1").getFileReport(sourceFile);
+        FileReport fixmeReport = new TagReport("FIXME", "tag_class_2").getFileReport(sourceFile);
+
+        assertSame(todoReport.getSourceFile(), fixmeReport.getSourceFile());
+        assertEquals("unknown/Test.html", sourceFile.getXrefPath());
+    }
+
+    @Test
+    void testArchiveEntryHasNoXrefPage() {
+        DirectoryTrie trie = new DirectoryTrie();
+        SourceFileInfo entry = SourceFileInfo.forArchiveEntry(trie, new File("foo.jar"), "com/Foo.java", "UTF-8");
+        entry.setPackageName("com");
+        TagReport tagReport = new TagReport("TODO", "tag_class_1");
+        tagReport.getFileReport(entry).addComment("in an archive", 3);
+
+        assertNull(entry.getXrefPath());
+        FileResult fileResult = TagListResult.freeze(Arrays.asList(tagReport), new ArrayList<>())
+                .getTagResults()
+                .get(0)
+                .getFileResults()
+                .get(0);
+        assertEquals("foo.jar!/com.Foo", fileResult.getClassName());
+        assertNull(fileResult.getXrefPath());
+    }
+
+    @Test
+    void testIdentityUsesNormalizedPath() {
+        FileReport report = new FileReport(new File("dir/Test.java"), "UTF-8");
+        FileReport samePath = new FileReport(new File("dir/../dir/Test.java"), "UTF-8");
+        FileReport otherPath = new FileReport(new File("other/Test.java"), "UTF-8");
+
+        assertEquals(report, samePath);
+        assertEquals(report.hashCode(), samePath.hashCode());
+        assertNotEquals(report, otherPath);
+        assertTrue(report.compareTo(otherPath) < 0);
+    }
 }
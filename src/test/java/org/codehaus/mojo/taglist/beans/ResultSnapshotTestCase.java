@@ -0,0 +1,100 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the snapshot of an analysis result.
+ */
+class ResultSnapshotTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        TagReport todo = new TagReport("TODO", "tag_class_1");
+        todo.addTagString("TODO");
+        todo.getFileReport(new File("B.java"), "UTF-8").addComment("in b", 5);
+        todo.getFileReport(new File("A.java"), "UTF-8").addComment("in a", 7);
+        List<SkippedFile> skippedFiles =
+                Collections.singletonList(new SkippedFile("Huge.java", SkippedFile.Reason.FILE_SIZE));
+        TagListResult result = TagListResult.freeze(Arrays.asList(todo), skippedFiles);
+
+        File file = tempDir.resolve("taglist-snapshot.bin").toFile();
+        ResultSnapshot.write(result, "abc", file);
+
+        try (CommentPool commentPool = new CommentPool()) {
+            assertNull(ResultSnapshot.read(file, "def", commentPool));
+            TagListResult restored = ResultSnapshot.read(file, "abc", commentPool);
+
+            TagResult tagResult = restored.getTagResults().get(0);
+            assertEquals("TODO", tagResult.getTagName());
+            assertEquals("tag_class_1", tagResult.getHTMLSafeLinkName());
+            assertEquals(Arrays.asList("TODO"), tagResult.getTagStrings());
+            assertEquals(2, tagResult.getTagCount());
+            FileResult fileResult = tagResult.getFileResults().get(1);
+            assertEquals("unknown.B", fileResult.getClassName());
+            assertEquals("unknown/B.html", fileResult.getXrefPath());
+            assertEquals(5, fileResult.getLineIndexAt(0));
+            assertEquals("in b", fileResult.getCommentAt(0));
+            assertEquals("Huge.java", restored.getSkippedFiles().get(0).getPath());
+            assertEquals(SkippedFile.Reason.FILE_SIZE, restored.getSkippedFiles().get(0).getReason());
+        }
+        assertNull(ResultSnapshot.read(tempDir.resolve("missing.bin").toFile(), "abc", new CommentPool()));
+    }
+
+    @Test
+    void testArchiveEntryKeepsNoXrefPage() throws IOException {
+        SourceFileInfo entry =
+                SourceFileInfo.forArchiveEntry(new DirectoryTrie(), new File("foo.jar"), "com/Foo.java", "UTF-8");
+        entry.setPackageName("com");
+        TagReport todo = new TagReport("TODO", "tag_class_1");
+        todo.getFileReport(entry).addComment("in an archive", 3);
+        TagListResult result = TagListResult.freeze(Arrays.asList(todo), Collections.emptyList());
+
+        File file = tempDir.resolve("taglist-snapshot.bin").toFile();
+        ResultSnapshot.write(result, "abc", file);
+
+        try (CommentPool commentPool = new CommentPool()) {
+            FileResult fileResult = ResultSnapshot.read(file, "abc", commentPool)
+                    .getTagResults()
+                    .get(0)
+                    .getFileResults()
+                    .get(0);
+            assertEquals("foo.jar!/com.Foo", fileResult.getClassName());
+            assertTrue(fileResult.isArchiveEntry());
+            assertNull(fileResult.getXrefPath());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.codehaus.mojo.taglist.beans;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the sorted analysis result.
+ */
+class TagListResultTestCase {
+
+    @Test
+    void testFreezeSortsTagsAndFiles() {
+        TagReport todo = new TagReport("TODO", "tag_class_1");
+        todo.getFileReport(new File("B.java"), "UTF-8").addComment("in b", 5);
+        todo.getFileReport(new File("A.java"), "UTF-8").addComment("in a", 7);
+        todo.getFileReport(new File("A.java"), "UTF-8").addComment("also in a", 3);
+        TagReport fixme = new TagReport("FIXME", "tag_class_2");
+
+        TagListResult result = TagListResult.freeze(Arrays.asList(todo, fixme));
+
+        List<TagResult> tagResults = result.getTagResults();
+        assertEquals("FIXME", tagResults.get(0).getTagName());
+        assertEquals(0, tagResults.get(0).getTagCount());
+        assertEquals("TODO", tagResults.get(1).getTagName());
+        assertEquals(3, tagResults.get(1).getTagCount());
+
+        List<FileResult> fileResults = tagResults.get(1).getFileResults();
+        assertEquals("unknown.A", fileResults.get(0).getClassName());
+        assertEquals(3, fileResults.get(0).getLineIndexAt(0));
+        assertEquals("also in a", fileResults.get(0).getCommentAt(0));
+        assertEquals("unknown.B", fileResults.get(1).getClassName());
+        assertTrue(result.hasOccurrences());
+    }
+
+    @Test
+    void testEmptyResultHasNoOccurrences() {
+        TagListResult result = TagListResult.freeze(Arrays.asList(new TagReport("TODO", "tag_class_1")));
+        assertFalse(result.hasOccurrences());
+    }
+}
@@ -0,0 +1,7 @@
+﻿// TODO a tag after the byte order mark
+package com;
+
+/**
+ * A class saved with a UTF-8 byte order mark.
+ */
+public class ByteOrderMark {}
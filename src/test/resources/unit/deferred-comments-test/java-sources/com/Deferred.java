@@ -0,0 +1,24 @@
+// TODO a tag on the first line of the file
+package com;
+
+/**
+ * A class whose comments are read back from the file when the report needs them.
+ */
+public class Deferred {
+
+    /**
+     * TODO a javadoc comment that goes on
+     * over a second line
+     * and ends on a third line.
+     */
+    public void javadoc() {}
+
+    // TODO a line comment that goes on
+    // over a second line.
+    public void lineComments() {}
+
+    /* TODO: a comment after a colon */
+    public void colon() {}
+
+    public void trailing() {} // TODO a comment after the code
+}
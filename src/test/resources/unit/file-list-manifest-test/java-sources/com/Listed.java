@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class for the file list manifest.
+ */
+public class Listed {
+
+    // TODO a tag in Listed
+    public void method() {}
+}
@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class for the file list manifest.
+ */
+public class Unlisted {
+
+    // TODO a tag in Unlisted
+    public void method() {}
+}
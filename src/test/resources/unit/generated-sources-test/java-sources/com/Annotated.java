@@ -0,0 +1,13 @@
+package com;
+
+import javax.annotation.Generated;
+
+/**
+ * A class marked by a default marker.
+ */
+@Generated("a generator")
+public class Annotated {
+
+    // TODO a tag in an annotated generated file
+    public void annotated() {}
+}
@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class written by hand.
+ */
+public class Handwritten {
+
+    // TODO a tag in a handwritten file
+    public void handwritten() {}
+}
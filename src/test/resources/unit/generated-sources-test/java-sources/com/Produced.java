@@ -0,0 +1,11 @@
+// Produced by the fixture generator
+package com;
+
+/**
+ * A class marked by a custom marker.
+ */
+public class Produced {
+
+    // TODO a tag in a file with a custom marker
+    public void produced() {}
+}
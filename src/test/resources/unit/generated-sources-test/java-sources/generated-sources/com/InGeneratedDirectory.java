@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class found in a generated sources directory.
+ */
+public class InGeneratedDirectory {
+
+    // TODO a tag in a generated sources directory
+    public void inGeneratedDirectory() {}
+}
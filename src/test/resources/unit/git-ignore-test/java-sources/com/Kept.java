@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class for the git ignore rules.
+ */
+public class Kept {
+
+    // TODO a tag in Kept
+    public void method() {}
+}
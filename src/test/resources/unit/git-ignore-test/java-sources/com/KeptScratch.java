@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class for the git ignore rules.
+ */
+public class KeptScratch {
+
+    // TODO a tag in KeptScratch
+    public void method() {}
+}
@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class for the git ignore rules.
+ */
+public class Scratch {
+
+    // TODO a tag in Scratch
+    public void method() {}
+}
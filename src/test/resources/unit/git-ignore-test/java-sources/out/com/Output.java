@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class in an ignored directory.
+ */
+public class Output {
+
+    // TODO a tag in an ignored directory
+    public void method() {}
+}
@@ -0,0 +1,11 @@
+package com;
+
+/**
+ * Test class with tags followed by a colon or not.
+ *
+ * @colons This is without colon.
+ *
+ * @colons: This is with colon.
+ */
+public class Colons {
+}
@@ -0,0 +1,216 @@
+package com;
+
+/**
+ * Test class whose first comment spans every point the file is split at for a parallel scan.
+ */
+public class ParallelScan {
+
+    /**
+     * @span_start This comment starts on line 9
+     * and goes on with continuation line 1
+     * and goes on with continuation line 2
+     * and goes on with continuation line 3
+     * and goes on with continuation line 4
+     * and goes on with continuation line 5
+     * and goes on with continuation line 6
+     * and goes on with continuation line 7
+     * and goes on with continuation line 8
+     * and goes on with continuation line 9
+     * and goes on with continuation line 10
+     * and goes on with continuation line 11
+     * and goes on with continuation line 12
+     * and goes on with continuation line 13
+     * and goes on with continuation line 14
+     * and goes on with continuation line 15
+     * and goes on with continuation line 16
+     * and goes on with continuation line 17
+     * and goes on with continuation line 18
+     * and goes on with continuation line 19
+     * and goes on with continuation line 20
+     * and goes on with continuation line 21
+     * and goes on with continuation line 22
+     * and goes on with continuation line 23
+     * and goes on with continuation line 24
+     * and goes on with continuation line 25
+     * and goes on with continuation line 26
+     * and goes on with continuation line 27
+     * and goes on with continuation line 28
+     * and goes on with continuation line 29
+     * and goes on with continuation line 30
+     * and goes on with continuation line 31
+     * and goes on with continuation line 32
+     * and goes on with continuation line 33
+     * and goes on with continuation line 34
+     * and goes on with continuation line 35
+     * and goes on with continuation line 36
+     * and goes on with continuation line 37
+     * and goes on with continuation line 38
+     * and goes on with continuation line 39
+     * and goes on with continuation line 40
+     * and goes on with continuation line 41
+     * and goes on with continuation line 42
+     * and goes on with continuation line 43
+     * and goes on with continuation line 44
+     * and goes on with continuation line 45
+     * and goes on with continuation line 46
+     * and goes on with continuation line 47
+     * and goes on with continuation line 48
+     * and goes on with continuation line 49
+     * and goes on with continuation line 50
+     * and goes on with continuation line 51
+     * and goes on with continuation line 52
+     * and goes on with continuation line 53
+     * and goes on with continuation line 54
+     * and goes on with continuation line 55
+     * and goes on with continuation line 56
+     * and goes on with continuation line 57
+     * and goes on with continuation line 58
+     * and goes on with continuation line 59
+     * and goes on with continuation line 60
+     * and goes on with continuation line 61
+     * and goes on with continuation line 62
+     * and goes on with continuation line 63
+     * and goes on with continuation line 64
+     * and goes on with continuation line 65
+     * and goes on with continuation line 66
+     * and goes on with continuation line 67
+     * and goes on with continuation line 68
+     * and goes on with continuation line 69
+     * and goes on with continuation line 70
+     * and goes on with continuation line 71
+     * and goes on with continuation line 72
+     * and goes on with continuation line 73
+     * and goes on with continuation line 74
+     * and goes on with continuation line 75
+     * and goes on with continuation line 76
+     * and goes on with continuation line 77
+     * and goes on with continuation line 78
+     * and goes on with continuation line 79
+     * and goes on with continuation line 80
+     * and goes on with continuation line 81
+     * and goes on with continuation line 82
+     * and goes on with continuation line 83
+     * and goes on with continuation line 84
+     * and goes on with continuation line 85
+     * and goes on with continuation line 86
+     * and goes on with continuation line 87
+     * and goes on with continuation line 88
+     * and goes on with continuation line 89
+     * and goes on with continuation line 90
+     * and goes on with continuation line 91
+     * and goes on with continuation line 92
+     * and goes on with continuation line 93
+     * and goes on with continuation line 94
+     * and goes on with continuation line 95
+     * and goes on with continuation line 96
+     * and goes on with continuation line 97
+     * and goes on with continuation line 98
+     * and goes on with continuation line 99
+     * and goes on with continuation line 100
+     * and goes on with continuation line 101
+     * and goes on with continuation line 102
+     * and goes on with continuation line 103
+     * and goes on with continuation line 104
+     * and goes on with continuation line 105
+     * and goes on with continuation line 106
+     * and goes on with continuation line 107
+     * and goes on with continuation line 108
+     * and goes on with continuation line 109
+     * and goes on with continuation line 110
+     * and goes on with continuation line 111
+     * and goes on with continuation line 112
+     * and goes on with continuation line 113
+     * and goes on with continuation line 114
+     * and goes on with continuation line 115
+     * and goes on with continuation line 116
+     * and goes on with continuation line 117
+     * and goes on with continuation line 118
+     * and goes on with continuation line 119
+     * and goes on with continuation line 120
+     * and goes on with continuation line 121
+     * and goes on with continuation line 122
+     * and goes on with continuation line 123
+     * and goes on with continuation line 124
+     * and goes on with continuation line 125
+     * and goes on with continuation line 126
+     * and goes on with continuation line 127
+     * and goes on with continuation line 128
+     * and goes on with continuation line 129
+     * and goes on with continuation line 130
+     * and goes on with continuation line 131
+     * and goes on with continuation line 132
+     * and goes on with continuation line 133
+     * and goes on with continuation line 134
+     * and goes on with continuation line 135
+     * and goes on with continuation line 136
+     * and goes on with continuation line 137
+     * and goes on with continuation line 138
+     * and goes on with continuation line 139
+     * and goes on with continuation line 140
+     * and goes on with continuation line 141
+     * and goes on with continuation line 142
+     * and goes on with continuation line 143
+     * and goes on with continuation line 144
+     * and goes on with continuation line 145
+     * and goes on with continuation line 146
+     * and goes on with continuation line 147
+     * and goes on with continuation line 148
+     * and goes on with continuation line 149
+     * and goes on with continuation line 150
+     * and goes on with continuation line 151
+     * and goes on with continuation line 152
+     * and goes on with continuation line 153
+     * and goes on with continuation line 154
+     * and goes on with continuation line 155
+     * and goes on with continuation line 156
+     * and goes on with continuation line 157
+     * and goes on with continuation line 158
+     * and goes on with continuation line 159
+     * and goes on with continuation line 160
+     * and goes on with continuation line 161
+     * and goes on with continuation line 162
+     * and goes on with continuation line 163
+     * and goes on with continuation line 164
+     * and goes on with continuation line 165
+     * and goes on with continuation line 166
+     * and goes on with continuation line 167
+     * and goes on with continuation line 168
+     * and goes on with continuation line 169
+     * and goes on with continuation line 170
+     * and goes on with continuation line 171
+     * and goes on with continuation line 172
+     * and goes on with continuation line 173
+     * and goes on with continuation line 174
+     * and goes on with continuation line 175
+     * and goes on with continuation line 176
+     * and goes on with continuation line 177
+     * and goes on with continuation line 178
+     * and goes on with continuation line 179
+     * and goes on with continuation line 180
+     * and goes on with continuation line 181
+     * and goes on with continuation line 182
+     * and goes on with continuation line 183
+     * and goes on with continuation line 184
+     * and goes on with continuation line 185
+     * and goes on with continuation line 186
+     * and goes on with continuation line 187
+     * and goes on with continuation line 188
+     * and goes on with continuation line 189
+     * and goes on with continuation line 190
+     * and goes on with continuation line 191
+     * and goes on with continuation line 192
+     * and goes on with continuation line 193
+     * and goes on with continuation line 194
+     * and goes on with continuation line 195
+     * and goes on with continuation line 196
+     * and goes on with continuation line 197
+     * and goes on with continuation line 198
+     * and goes on with continuation line 199
+     * and goes on with continuation line 200
+     */
+    public void spanning() {}
+
+    // @span_end This comment follows the spanning comment
+    // and ends on the next line
+    public void following() {}
+}
@@ -0,0 +1,109 @@
+package com;
+
+/**
+ * A class larger than the file size limit of the test.
+ */
+public class Large {
+
+    // TODO a tag in a large file
+    private int field0;
+    private int field1;
+    private int field2;
+    private int field3;
+    private int field4;
+    private int field5;
+    private int field6;
+    private int field7;
+    private int field8;
+    private int field9;
+    private int field10;
+    private int field11;
+    private int field12;
+    private int field13;
+    private int field14;
+    private int field15;
+    private int field16;
+    private int field17;
+    private int field18;
+    private int field19;
+    private int field20;
+    private int field21;
+    private int field22;
+    private int field23;
+    private int field24;
+    private int field25;
+    private int field26;
+    private int field27;
+    private int field28;
+    private int field29;
+    private int field30;
+    private int field31;
+    private int field32;
+    private int field33;
+    private int field34;
+    private int field35;
+    private int field36;
+    private int field37;
+    private int field38;
+    private int field39;
+    private int field40;
+    private int field41;
+    private int field42;
+    private int field43;
+    private int field44;
+    private int field45;
+    private int field46;
+    private int field47;
+    private int field48;
+    private int field49;
+    private int field50;
+    private int field51;
+    private int field52;
+    private int field53;
+    private int field54;
+    private int field55;
+    private int field56;
+    private int field57;
+    private int field58;
+    private int field59;
+    private int field60;
+    private int field61;
+    private int field62;
+    private int field63;
+    private int field64;
+    private int field65;
+    private int field66;
+    private int field67;
+    private int field68;
+    private int field69;
+    private int field70;
+    private int field71;
+    private int field72;
+    private int field73;
+    private int field74;
+    private int field75;
+    private int field76;
+    private int field77;
+    private int field78;
+    private int field79;
+    private int field80;
+    private int field81;
+    private int field82;
+    private int field83;
+    private int field84;
+    private int field85;
+    private int field86;
+    private int field87;
+    private int field88;
+    private int field89;
+    private int field90;
+    private int field91;
+    private int field92;
+    private int field93;
+    private int field94;
+    private int field95;
+    private int field96;
+    private int field97;
+    private int field98;
+    private int field99;
+}
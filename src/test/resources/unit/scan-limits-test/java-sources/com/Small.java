@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class within the limits.
+ */
+public class Small {
+
+    // TODO a tag in a small file
+    public void small() {}
+}
@@ -0,0 +1,13 @@
+package com;
+
+/**
+ * A class analyzed once for all the executions of the report in a build.
+ */
+public class Shared {
+
+    // TODO a tag in a shared result
+    public void shared() {}
+
+    // TODO
+    public void empty() {}
+}
@@ -0,0 +1,13 @@
+package com;
+
+/**
+ * A class in a source archive.
+ */
+public class Packed {
+
+    /**
+     * TODO a tag in an archive entry
+     * that goes on over a second line.
+     */
+    public void packed() {}
+}
@@ -0,0 +1,10 @@
+package com;
+
+/**
+ * A class in a source directory.
+ */
+public class OnDisk {
+
+    // TODO a tag in a file on disk
+    public void onDisk() {}
+}
@@ -0,0 +1,13 @@
+package com;
+
+/**
+ * A class whose results are reused while it does not change.
+ */
+public class UpToDate {
+
+    // TODO a tag in an unchanged file
+    public void upToDate() {}
+
+    // TODO
+    public void empty() {}
+}